@@ -0,0 +1,214 @@
+package com.connor.benchmark;
+
+import com.connor.Main;
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.dao.CustomerIdAllocator;
+import com.connor.customer.dao.CustomerJBDCDataAccessService;
+import com.connor.customer.dao.CustomerJsonStreamer;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import com.connor.customer.payload.CustomerView;
+import com.connor.customer.utils.CustomerRowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Runs every CustomerDao method against both backends (customer.persistence.backend) on a seeded table.
+// Needs Postgres on localhost:5332 (docker-compose.yml); override with -Dbenchmark.datasource.url=...
+// The table is truncated and reseeded for every trial, so do not point this at a database you care about.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerDaoBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int BATCH_SIZE = 50;
+    private static final int EMAIL_LOOKUP_SIZE = 100;
+    // served by customer_age_id_idx and customer_email_lower_pattern_idx respectively
+    private static final CustomerSearchCriteria AGE_SEARCH =
+            new CustomerSearchCriteria(null, null, 30, 40, CustomerSearchSort.AGE, PAGE_SIZE);
+    private static final CustomerSearchCriteria EMAIL_PREFIX_SEARCH =
+            new CustomerSearchCriteria(null, "seed-1", null, null, CustomerSearchSort.ID, PAGE_SIZE);
+
+    @Param({"jdbc", "jpa"})
+    public String implementation;
+
+    @Param({"1000", "10000", "100000"})
+    public int tableSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private CustomerDao customerDao;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private long[] ids;
+    private List<String> emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + System.getProperty("benchmark.datasource.url", "jdbc:postgresql://localhost:5332/customer"),
+                        "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "amigoscode"),
+                        "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "password"),
+                        "customer.persistence.backend=" + implementation,
+                        "customer.cache.invalidation.enabled=false",
+                        "logging.level.root=warn")
+                .run();
+        customerDao = context.getBean(CustomerDao.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        jdbcTemplate.execute("TRUNCATE customer");
+        List<Customer> customers = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            customers.add(new Customer("Customer " + i, "seed-" + i + "@benchmark.local", 18 + i % 60));
+        }
+        // seed through JDBC whichever backend is measured, so every trial starts from the same table
+        new CustomerJBDCDataAccessService(jdbcTemplate, new CustomerRowMapper(), new CustomerIdAllocator(jdbcTemplate),
+                context.getBean(CustomerJsonStreamer.class))
+                .insertCustomers(customers, 500);
+        jdbcTemplate.execute("ANALYZE customer");
+
+        ids = customers.stream().mapToLong(Customer::getId).toArray();
+        emails = customers.stream().map(Customer::getEmail).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CustomerView> selectAllCustomers() {
+        return customerDao.selectAllCustomers();
+    }
+
+    @Benchmark
+    public List<CustomerView> selectCustomersAfterId() {
+        return customerDao.selectCustomersAfterId(randomId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void streamAllCustomers(Blackhole blackhole) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CustomerView> customers = customerDao.streamAllCustomers()) {
+                customers.forEach(blackhole::consume);
+            }
+        });
+    }
+
+    @Benchmark
+    public List<CustomerView> searchCustomersByAge() {
+        return customerDao.searchCustomers(AGE_SEARCH);
+    }
+
+    @Benchmark
+    public List<CustomerView> searchCustomersByEmailPrefix() {
+        return customerDao.searchCustomers(EMAIL_PREFIX_SEARCH);
+    }
+
+    @Benchmark
+    public String writeCustomerPage() {
+        return customerDao.writeCustomerPage(randomId(), PAGE_SIZE, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void writeCustomers() {
+        customerDao.writeCustomers(AGE_SEARCH, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public Optional<CustomerView> selectCustomerById() {
+        return customerDao.selectCustomerById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Long> selectCustomerVersion() {
+        return customerDao.selectCustomerVersion(randomId());
+    }
+
+    @Benchmark
+    public List<CustomerAgeCount> selectAgeCounts() {
+        return customerDao.selectAgeCounts();
+    }
+
+    @Benchmark
+    public String selectCustomerPageFingerprint() {
+        return customerDao.selectCustomerPageFingerprint(randomId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean existCustomerWithEmail() {
+        return customerDao.existCustomerWithEmail(emails.get(ThreadLocalRandom.current().nextInt(emails.size())));
+    }
+
+    @Benchmark
+    public boolean existCustomerWithId() {
+        return customerDao.existCustomerWithId(randomId());
+    }
+
+    @Benchmark
+    public Set<String> selectExistingEmails() {
+        int from = ThreadLocalRandom.current().nextInt(Math.max(1, emails.size() - EMAIL_LOOKUP_SIZE));
+        return customerDao.selectExistingEmails(emails.subList(from, Math.min(emails.size(), from + EMAIL_LOOKUP_SIZE)));
+    }
+
+    // Insert and delete together so the table size stays at the parameter value.
+    @Benchmark
+    public void insertThenDeleteCustomer() {
+        Customer customer = new Customer("Bench", "bench-" + sequence.incrementAndGet() + "@benchmark.local", 30);
+        customerDao.insertCustomer(customer);
+        customerDao.deleteCustomer(customer.getId());
+    }
+
+    @Benchmark
+    public Set<String> insertCustomers() {
+        List<Customer> customers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            customers.add(new Customer("Bench", "batch-" + sequence.incrementAndGet() + "@benchmark.local", 30));
+        }
+        Set<String> taken = customerDao.insertCustomers(customers, BATCH_SIZE);
+        jdbcTemplate.update("DELETE FROM customer WHERE email LIKE 'batch-%@benchmark.local'");
+        return taken;
+    }
+
+    @Benchmark
+    public CustomerView updateCustomer() {
+        Customer changes = new Customer(null, null, 18 + (int) (sequence.incrementAndGet() % 60));
+        changes.setId(randomId());
+        try {
+            return customerDao.updateCustomer(changes);
+        } catch (RuntimeException e) {
+            // the random age matched the current one
+            return null;
+        }
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,73 @@
+package com.connor.benchmark;
+
+import com.connor.customer.http.CustomerProtobufHttpMessageConverter;
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode time for each wire format and content coding. Encoded sizes are printed once per trial,
+// since JMH only reports time; compare both before moving a caller to a different format.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerPayloadBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"identity", "gzip", "zstd"})
+    public String coding;
+
+    @Param({"50", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private CustomerPage page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> null;
+        };
+        List<CustomerView> customers = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            customers.add(new CustomerView(i + 1L, "Customer " + i, "customer" + i + "@gmail.com", 18 + i % 60, 0L));
+        }
+        page = new CustomerPage(customers, (long) pageSize);
+        System.out.printf("%n%s/%s/%d encodes to %d bytes%n", format, coding, pageSize, encode().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = switch (coding) {
+            case "gzip" -> new GZIPOutputStream(bytes);
+            case "zstd" -> new ZstdOutputStream(bytes, 3);
+            default -> bytes;
+        }) {
+            if (objectMapper == null) {
+                CustomerProtobufHttpMessageConverter.write(page, out);
+            } else {
+                objectMapper.writeValue(out, page);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.connor.benchmark;
+
+import com.connor.customer.payload.CustomerView;
+import com.connor.customer.utils.CustomerRowMapper;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+// Maps a row held in an in-memory CachedRowSet, so only the mapper and ResultSet accessors are measured.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerRowMapperBenchmark {
+
+    private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+    private CachedRowSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(5);
+        metaData.setColumnName(1, "id");
+        metaData.setColumnType(1, Types.BIGINT);
+        metaData.setColumnName(2, "name");
+        metaData.setColumnType(2, Types.VARCHAR);
+        metaData.setColumnName(3, "email");
+        metaData.setColumnType(3, Types.VARCHAR);
+        metaData.setColumnName(4, "age");
+        metaData.setColumnType(4, Types.INTEGER);
+        metaData.setColumnName(5, "version");
+        metaData.setColumnType(5, Types.BIGINT);
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        resultSet.moveToInsertRow();
+        resultSet.updateLong(1, 1L);
+        resultSet.updateString(2, "Alex");
+        resultSet.updateString(3, "alex@gmail.com");
+        resultSet.updateInt(4, 27);
+        resultSet.updateLong(5, 0L);
+        resultSet.insertRow();
+        resultSet.moveToCurrentRow();
+        resultSet.beforeFirst();
+        resultSet.next();
+    }
+
+    @Benchmark
+    public CustomerView mapRow() throws SQLException {
+        return customerRowMapper.mapRow(resultSet, 1);
+    }
+}
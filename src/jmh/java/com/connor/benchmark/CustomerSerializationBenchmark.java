@@ -0,0 +1,40 @@
+package com.connor.benchmark;
+
+import com.connor.customer.payload.CustomerView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializes a customer list the way the list endpoint does, with Boot's default ObjectMapper settings.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerSerializationBenchmark {
+
+    @Param({"1", "50", "1000", "100000"})
+    public int listSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<CustomerView> customers;
+
+    @Setup
+    public void setUp() {
+        customers = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            customers.add(new CustomerView(i + 1L, "Customer " + i, "customer" + i + "@gmail.com", 18 + i % 60, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeCustomerList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customers);
+    }
+}
@@ -1,38 +1,48 @@
 package com.connor;
 
+import com.connor.customer.config.CustomerRuntimeHints;
+import com.connor.customer.dao.CustomerDao;
 import com.connor.customer.model.Customer;
-import com.connor.customer.dao.CustomerRepository;
 import com.github.javafaker.Faker;
 import com.github.javafaker.Name;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
-
-import java.util.List;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Profile;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableCaching
+@ImportRuntimeHints(CustomerRuntimeHints.class)
 public class Main {
 
     public static void main(String[] args) {
-        SpringApplication.run(Main.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(Main.class, args);
+        // the CDS training run (-Pcds) only needs everything startup loads, then the JVM writes the archive on exit
+        if (context.getEnvironment().getProperty("customer.startup.exit-after-start", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 
+    // adds a random customer on every start; run with --spring.profiles.active=seed
     @Bean
-    CommandLineRunner runner(CustomerRepository customerRepository) {
+    @Profile("seed")
+    CommandLineRunner runner(CustomerDao customerDao) {
         return args -> {
             Faker faker = new Faker();
             Name name =  faker.name();
             String firstName = name.firstName();
             String lastName = name.lastName();
-            List<Customer> customers = List.of(
-                    new Customer(
-                            firstName + " " + lastName,
-                            firstName.toLowerCase() + "." + lastName.toLowerCase() + "@gmail.com",
-                            faker.number().numberBetween(18, 80)
-                    )
-            );
-            customerRepository.saveAll(customers);
+            customerDao.insertCustomer(new Customer(
+                    firstName + " " + lastName,
+                    firstName.toLowerCase() + "." + lastName.toLowerCase() + "@gmail.com",
+                    faker.number().numberBetween(18, 80)
+            ));
         };
     }
 }
@@ -0,0 +1,86 @@
+package com.connor.customer.business;
+
+import com.connor.customer.config.CustomerBulkProperties;
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerBulkRegistrationResponse;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerRegistrationResult;
+import com.connor.customer.payload.CustomerRegistrationStatus;
+import com.connor.exception.RequestValidationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class CustomerBulkRegistrationService {
+
+    private final CustomerDao customerDao;
+    private final CustomerBulkProperties properties;
+
+    public CustomerBulkRegistrationService(CustomerDao customerDao, CustomerBulkProperties properties) {
+        this.customerDao = customerDao;
+        this.properties = properties;
+    }
+
+    @Transactional
+    public CustomerBulkRegistrationResponse addCustomers(List<CustomerRegistrationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RequestValidationException("no customers to register");
+        }
+        if (requests.size() > properties.maxRequestSize()) {
+            throw new RequestValidationException("at most " + properties.maxRequestSize() + " customers can be registered at once");
+        }
+
+        CustomerRegistrationStatus[] statuses = new CustomerRegistrationStatus[requests.size()];
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CustomerRegistrationRequest request = requests.get(i);
+            if (!isValid(request)) {
+                statuses[i] = CustomerRegistrationStatus.INVALID;
+            } else if (!emails.add(request.email())) {
+                statuses[i] = CustomerRegistrationStatus.DUPLICATE_IN_REQUEST;
+            }
+        }
+
+        Set<String> takenEmails = emails.isEmpty() ? Set.of() : customerDao.selectExistingEmails(emails);
+        List<Customer> customers = new ArrayList<>(emails.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if (statuses[i] != null) {
+                continue;
+            }
+            CustomerRegistrationRequest request = requests.get(i);
+            if (takenEmails.contains(request.email())) {
+                statuses[i] = CustomerRegistrationStatus.EMAIL_TAKEN;
+            } else {
+                statuses[i] = CustomerRegistrationStatus.CREATED;
+                customers.add(new Customer(request.name(), request.email(), request.age()));
+            }
+        }
+
+        // emails registered by another request after the lookup above are skipped by the insert
+        Set<String> raced = customers.isEmpty() ? Set.of() : customerDao.insertCustomers(customers, properties.batchSize());
+
+        List<CustomerRegistrationResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CustomerRegistrationRequest request = requests.get(i);
+            if (statuses[i] == CustomerRegistrationStatus.CREATED && raced.contains(request.email())) {
+                statuses[i] = CustomerRegistrationStatus.EMAIL_TAKEN;
+            }
+            results.add(new CustomerRegistrationResult(i, request == null ? null : request.email(), statuses[i]));
+        }
+        int created = customers.size() - raced.size();
+        return new CustomerBulkRegistrationResponse(created, requests.size() - created, results);
+    }
+
+    static boolean isValid(CustomerRegistrationRequest request) {
+        return request != null
+                && request.name() != null && !request.name().isBlank()
+                && request.email() != null && !request.email().isBlank()
+                && request.age() != null && request.age() >= 0;
+    }
+}
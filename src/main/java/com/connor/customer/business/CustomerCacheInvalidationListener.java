@@ -0,0 +1,120 @@
+package com.connor.customer.business;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+@ConditionalOnProperty(name = "customer.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerCacheInvalidationListener implements SmartLifecycle {
+
+    static final String CHANNEL = "customer_changed";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerCacheInvalidationListener.class);
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final Cache cache;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public CustomerCacheInvalidationListener(DataSourceProperties dataSourceProperties, CacheManager cacheManager) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cache = cacheManager.getCache(CustomerService.CUSTOMER_CACHE);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "customer-cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(POLL_TIMEOUT_MILLIS * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    boolean isListening() {
+        return listening;
+    }
+
+    // the customer_changed trigger publishes the id of every updated or deleted row on commit
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // anything published while we were not listening is lost, so start from an empty cache
+                cache.clear();
+                listening = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            evict(notification.getParameter());
+                        }
+                    }
+                }
+                listening = false;
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    log.warn("Lost customer cache invalidation connection, retrying in {} ms", RECONNECT_DELAY_MILLIS, e);
+                    cache.clear();
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void evict(String customerId) {
+        try {
+            cache.evict(Long.valueOf(customerId));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring customer cache invalidation with invalid id {}", customerId);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
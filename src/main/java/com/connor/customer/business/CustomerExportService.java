@@ -0,0 +1,69 @@
+package com.connor.customer.business;
+
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.payload.CustomerFileFormat;
+import com.connor.customer.payload.CustomerView;
+import com.connor.customer.utils.CsvUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class CustomerExportService {
+
+    private final CustomerDao customerDao;
+    private final ObjectMapper objectMapper;
+
+    public CustomerExportService(CustomerDao customerDao, ObjectMapper objectMapper) {
+        this.customerDao = customerDao;
+        this.objectMapper = objectMapper;
+    }
+
+    // read-only transaction keeps autocommit off, which pgjdbc needs to honour the fetch size with a cursor
+    @Transactional(readOnly = true)
+    public void exportCustomers(CustomerFileFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<CustomerView> customers = customerDao.streamAllCustomers()) {
+            switch (format) {
+                case NDJSON -> writeNdjson(customers.iterator(), outputStream);
+                case CSV -> writeCsv(customers.iterator(), outputStream);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<CustomerView> customers, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            while (customers.hasNext()) {
+                generator.writeObject(customers.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<CustomerView> customers, OutputStream outputStream) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            writer.write("id,name,email,age\n");
+            while (customers.hasNext()) {
+                CustomerView customer = customers.next();
+                writer.write(String.valueOf(customer.id()));
+                writer.write(',');
+                writer.write(CsvUtils.escape(customer.name()));
+                writer.write(',');
+                writer.write(CsvUtils.escape(customer.email()));
+                writer.write(',');
+                writer.write(String.valueOf(customer.age()));
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.connor.customer.business;
+
+import com.connor.customer.dao.CustomerCopyImporter;
+import com.connor.customer.payload.CustomerFileFormat;
+import com.connor.customer.payload.CustomerImportResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+
+@Service
+public class CustomerImportService {
+
+    private final CustomerCopyImporter customerCopyImporter;
+
+    public CustomerImportService(CustomerCopyImporter customerCopyImporter) {
+        this.customerCopyImporter = customerCopyImporter;
+    }
+
+    @Transactional
+    public CustomerImportResult importCustomers(CustomerFileFormat format, InputStream inputStream) {
+        return customerCopyImporter.importCustomers(format, inputStream);
+    }
+}
@@ -0,0 +1,301 @@
+package com.connor.customer.business;
+
+import com.connor.customer.config.CustomerRegistrationQueueProperties;
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerRegistrationStatus;
+import com.connor.customer.payload.CustomerRegistrationTicket;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
+import com.connor.exception.ServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Write-behind registration: requests are validated and acknowledged straight away, then a single
+// writer thread drains the queue and commits whole batches in one transaction each (group commit).
+// When the queue is full, callers wait up to offerTimeout and are then turned away with 503.
+// On shutdown new registrations are refused and everything already accepted is written before the
+// datasource goes away.
+@Component
+@ConditionalOnProperty(name = "customer.registration-queue.enabled", havingValue = "true")
+public class CustomerRegistrationQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerRegistrationQueue.class);
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
+
+    private final CustomerDao customerDao;
+    private final TransactionOperations transactionOperations;
+    private final CustomerRegistrationQueueProperties properties;
+    private final BlockingQueue<Registration> queue;
+    private final Cache<UUID, CustomerRegistrationTicket> tickets;
+    // submitters share the read lock, stop() takes the write lock so no offer can slip in after the final drain
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    public CustomerRegistrationQueue(
+            CustomerDao customerDao,
+            TransactionOperations transactionOperations,
+            CustomerRegistrationQueueProperties properties) {
+        this.customerDao = customerDao;
+        this.transactionOperations = transactionOperations;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(properties.statusRetention())
+                .build();
+    }
+
+    public CustomerRegistrationTicket submit(CustomerRegistrationRequest request) {
+        if (!CustomerBulkRegistrationService.isValid(request)) {
+            throw new RequestValidationException("name, email and a non-negative age are required");
+        }
+
+        Registration registration = new Registration(UUID.randomUUID(), request);
+        CustomerRegistrationTicket ticket = registration.ticket(CustomerRegistrationStatus.QUEUED, null);
+        tickets.put(registration.id(), ticket);
+
+        boolean accepted = false;
+        acceptLock.readLock().lock();
+        try {
+            if (accepting) {
+                accepted = queue.offer(registration, properties.offerTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+
+        if (!accepted) {
+            tickets.invalidate(registration.id());
+            throw new ServiceUnavailableException("Registration queue is full", properties.offerTimeout());
+        }
+        return ticket;
+    }
+
+    public CustomerRegistrationTicket getTicket(UUID id) {
+        CustomerRegistrationTicket ticket = tickets.getIfPresent(id);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Registration could not be found");
+        }
+        return ticket;
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    // lets tests queue registrations before the writer is running
+    void startAccepting() {
+        accepting = true;
+    }
+
+    @Override
+    public void start() {
+        startAccepting();
+        running = true;
+        writer = new Thread(this::drain, "customer-registration-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join(properties.shutdownTimeout().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                log.error("Shutting down with {} accepted customer registrations still queued", queue.size());
+            }
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stop after the web server has stopped taking requests and before the datasource is closed
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<Registration> batch = new ArrayList<>(properties.batchSize());
+        while (true) {
+            Registration first;
+            try {
+                first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                if (!accepting && queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+
+            batch.add(first);
+            fill(batch);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // take whatever is already queued, then linger up to batchDelay for a fuller batch unless shutting down
+    private void fill(List<Registration> batch) {
+        queue.drainTo(batch, properties.batchSize() - batch.size());
+        long deadline = System.nanoTime() + properties.batchDelay().toNanos();
+        while (accepting && batch.size() < properties.batchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                Registration next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                queue.drainTo(batch, properties.batchSize() - batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Nothing may escape: the writer thread is the only one draining the queue
+    private void write(List<Registration> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<CustomerRegistrationTicket> written = transactionOperations.execute(status -> insert(batch));
+                written.forEach(ticket -> tickets.put(ticket.id(), ticket));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // retrying the batch would fail the same way, one at a time finds the offending row
+                insertIndividually(batch);
+                return;
+            } catch (RuntimeException e) {
+                // also TransactionException, e.g. no connection to begin the transaction with
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    log.error("Giving up on {} customer registrations after {} attempts", batch.size(), attempt, e);
+                    batch.forEach(registration -> complete(registration, CustomerRegistrationStatus.FAILED, null));
+                    return;
+                }
+                log.warn("Writing {} customer registrations failed, retrying", batch.size(), e);
+                if (!sleepBeforeRetry(attempt)) {
+                    batch.forEach(registration -> complete(registration, CustomerRegistrationStatus.FAILED, null));
+                    return;
+                }
+            }
+        }
+    }
+
+    // tickets are only published by the caller once the transaction has committed
+    private List<CustomerRegistrationTicket> insert(List<Registration> batch) {
+        Set<String> emails = new HashSet<>();
+        for (Registration registration : batch) {
+            emails.add(registration.request().email());
+        }
+        Set<String> taken = customerDao.selectExistingEmails(emails);
+
+        List<CustomerRegistrationTicket> written = new ArrayList<>(batch.size());
+        List<Registration> created = new ArrayList<>(batch.size());
+        List<Customer> customers = new ArrayList<>(batch.size());
+        Set<String> claimed = new HashSet<>();
+        for (Registration registration : batch) {
+            CustomerRegistrationRequest request = registration.request();
+            if (taken.contains(request.email()) || !claimed.add(request.email())) {
+                written.add(registration.ticket(CustomerRegistrationStatus.EMAIL_TAKEN, null));
+            } else {
+                created.add(registration);
+                customers.add(new Customer(request.name(), request.email(), request.age()));
+            }
+        }
+
+        // a synchronous registration may take one of these emails after the lookup; the insert skips it
+        Set<String> raced = customers.isEmpty() ? Set.of() : customerDao.insertCustomers(customers, properties.batchSize());
+        for (int i = 0; i < created.size(); i++) {
+            Customer customer = customers.get(i);
+            written.add(raced.contains(customer.getEmail())
+                    ? created.get(i).ticket(CustomerRegistrationStatus.EMAIL_TAKEN, null)
+                    : created.get(i).ticket(CustomerRegistrationStatus.CREATED, customer.getId()));
+        }
+        return written;
+    }
+
+    private void insertIndividually(List<Registration> batch) {
+        for (Registration registration : batch) {
+            CustomerRegistrationRequest request = registration.request();
+            Customer customer = new Customer(request.name(), request.email(), request.age());
+            try {
+                customerDao.insertCustomer(customer);
+                complete(registration, CustomerRegistrationStatus.CREATED, customer.getId());
+            } catch (DuplicateResourceException e) {
+                complete(registration, CustomerRegistrationStatus.EMAIL_TAKEN, null);
+            } catch (RuntimeException e) {
+                log.error("Failed to register customer {}", request.email(), e);
+                complete(registration, CustomerRegistrationStatus.FAILED, null);
+            }
+        }
+    }
+
+    private void complete(Registration registration, CustomerRegistrationStatus status, Long customerId) {
+        tickets.put(registration.id(), registration.ticket(status, customerId));
+    }
+
+    private static boolean sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Registration(UUID id, CustomerRegistrationRequest request) {
+
+        CustomerRegistrationTicket ticket(CustomerRegistrationStatus status, Long customerId) {
+            return new CustomerRegistrationTicket(id, request.email(), status, customerId);
+        }
+    }
+}
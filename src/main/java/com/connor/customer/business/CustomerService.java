@@ -1,38 +1,152 @@
 package com.connor.customer.business;
 
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeBucket;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerPage;
 import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import com.connor.customer.payload.CustomerStatistics;
 import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.customer.payload.CustomerView;
 import com.connor.customer.dao.CustomerDao;
-import com.connor.exception.DuplicateResourceException;
 import com.connor.exception.RequestValidationException;
 import com.connor.exception.ResourceNotFoundException;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.StringJoiner;
 
 @Service
 public class CustomerService {
 
+    public static final String CUSTOMER_CACHE = "customers";
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+    // pg_trgm extracts nothing useful from shorter terms, so they would fall back to a full scan
+    static final int MIN_NAME_SEARCH_LENGTH = 3;
+    static final int DEFAULT_AGE_BUCKET_WIDTH = 10;
+
     private final CustomerDao customerDao;
 
-    public CustomerService(@Qualifier("jdbc") CustomerDao customerDao) {
+    public CustomerService(CustomerDao customerDao) {
         this.customerDao = customerDao;
     }
 
-    public List<Customer> getAllCustomers() {
+    @Transactional(readOnly = true)
+    public List<CustomerView> getAllCustomers() {
         return customerDao.selectAllCustomers();
     }
 
-    public Customer getCustomerById(Long id) {
+    @Transactional(readOnly = true)
+    public CustomerPage getCustomerPage(Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+
+        // fetch one extra row to find out whether another page exists without a count query
+        List<CustomerView> customers = customerDao.selectCustomersAfterId(after == null ? 0L : after, pageSize + 1);
+        if (customers.size() <= pageSize) {
+            return new CustomerPage(customers, null);
+        }
+
+        List<CustomerView> page = customers.subList(0, pageSize);
+        return new CustomerPage(page, page.get(pageSize - 1).id());
+    }
+
+    // getCustomerPage as JSON, written from the result set without building CustomerView objects on the
+    // JDBC backend; returns the same value as fingerprint(getCustomerPage(after, limit))
+    @Transactional(readOnly = true)
+    public String writeCustomerPage(Long after, Integer limit, OutputStream outputStream) {
+        return customerDao.writeCustomerPage(after == null ? 0L : after, pageSize(limit), outputStream);
+    }
+
+    // Same value as fingerprint(getCustomerPage(after, limit)) but only reads (id, version) pairs
+    @Transactional(readOnly = true)
+    public String getCustomerPageFingerprint(Long after, Integer limit) {
+        return customerDao.selectCustomerPageFingerprint(after == null ? 0L : after, pageSize(limit));
+    }
+
+    public static String fingerprint(CustomerPage page) {
+        StringJoiner rows = new StringJoiner(",");
+        for (CustomerView customer : page.customers()) {
+            rows.add(customer.id() + ":" + customer.version());
+        }
+        String more = page.nextCursor() == null ? "" : ";more";
+        return DigestUtils.md5DigestAsHex((rows + more).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerView> searchCustomers(
+            String name, String emailPrefix, Integer minAge, Integer maxAge, String sort, Integer limit) {
+        return customerDao.searchCustomers(searchCriteria(name, emailPrefix, minAge, maxAge, sort, limit));
+    }
+
+    // searchCustomers as a JSON array, written from the result set on the JDBC backend
+    @Transactional(readOnly = true)
+    public void writeCustomerSearch(
+            String name, String emailPrefix, Integer minAge, Integer maxAge, String sort, Integer limit,
+            OutputStream outputStream) {
+        customerDao.writeCustomers(searchCriteria(name, emailPrefix, minAge, maxAge, sort, limit), outputStream);
+    }
+
+    // Built from one pre-aggregated row per age, so the cost does not grow with the number of customers
+    @Transactional(readOnly = true)
+    public CustomerStatistics getCustomerStatistics(Integer bucketWidth) {
+        int width = bucketWidth == null ? DEFAULT_AGE_BUCKET_WIDTH : bucketWidth;
+        if (width < 1) {
+            throw new RequestValidationException("bucketWidth must be at least 1");
+        }
+        return statistics(customerDao.selectAgeCounts(), width);
+    }
+
+    // ageCounts must be ordered by age; buckets run contiguously from the youngest to the oldest customer
+    static CustomerStatistics statistics(List<CustomerAgeCount> ageCounts, int bucketWidth) {
+        if (ageCounts.isEmpty()) {
+            return new CustomerStatistics(0, null, null, null, List.of());
+        }
+
+        int minAge = ageCounts.get(0).age();
+        int maxAge = ageCounts.get(ageCounts.size() - 1).age();
+        int firstBucket = Math.floorDiv(minAge, bucketWidth);
+        long[] buckets = new long[Math.floorDiv(maxAge, bucketWidth) - firstBucket + 1];
+        long total = 0;
+        long ageSum = 0;
+        for (CustomerAgeCount ageCount : ageCounts) {
+            total += ageCount.customers();
+            ageSum += ageCount.age() * ageCount.customers();
+            buckets[Math.floorDiv(ageCount.age(), bucketWidth) - firstBucket] += ageCount.customers();
+        }
+
+        List<CustomerAgeBucket> histogram = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            int from = (firstBucket + i) * bucketWidth;
+            histogram.add(new CustomerAgeBucket(from, from + bucketWidth - 1, buckets[i]));
+        }
+        return new CustomerStatistics(total, minAge, maxAge, (double) ageSum / total, histogram);
+    }
+
+    @Transactional(readOnly = true)
+    public long getCustomerVersion(Long id) {
+        return customerDao.selectCustomerVersion(id).orElseThrow(() -> new ResourceNotFoundException("Customer could not be found"));
+    }
+
+    // Not read-only, so a miss loads from the primary: a replica may not have the write that just evicted
+    // the entry yet, and what a miss loads stays cached until it expires, whichever client asks next
+    @Cacheable(cacheNames = CUSTOMER_CACHE, key = "#id")
+    @Transactional
+    public CustomerView getCustomerById(Long id) {
         return customerDao.selectCustomerById(id).orElseThrow(() -> new ResourceNotFoundException("Customer could not be found"));
     }
 
     public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
-        if (customerDao.existCustomerWithEmail(customerRegistrationRequest.email())) {
-            throw new DuplicateResourceException("Customer with email already exist");
-        }
         customerDao.insertCustomer(new Customer(
                 customerRegistrationRequest.name(),
                 customerRegistrationRequest.email(),
@@ -40,41 +154,52 @@ public class CustomerService {
         ));
     }
 
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, key = "#customerId")
     public void deleteCustomerById(Long customerId) {
-        if (!customerDao.existCustomerWithId(customerId)) {
-            throw new ResourceNotFoundException("Customer could not be found");
-        }
         customerDao.deleteCustomer(customerId);
     }
 
-    public void updateCustomer(Long customerId, CustomerUpdateRequest requestBody) {
-        Customer customer = getCustomerById(customerId);
+    // expectedVersion comes from If-Match; null updates unconditionally
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, key = "#customerId")
+    public CustomerView updateCustomer(Long customerId, CustomerUpdateRequest requestBody, Long expectedVersion) {
+        if (requestBody.name() == null && requestBody.email() == null && requestBody.age() == null) {
+            throw new RequestValidationException("no changes found");
+        }
 
-        boolean changes = false;
+        Customer changes = new Customer(requestBody.name(), requestBody.email(), requestBody.age());
+        changes.setId(customerId);
+        changes.setVersion(expectedVersion);
+        return customerDao.updateCustomer(changes);
+    }
 
-        if (requestBody.name() != null && !customer.getName().equals(requestBody.name())) {
-            customer.setName(requestBody.name());
-            changes = true;
+    // sort defaults to relevance when searching by name and to id otherwise
+    private static CustomerSearchCriteria searchCriteria(
+            String name, String emailPrefix, Integer minAge, Integer maxAge, String sort, Integer limit) {
+        String term = name == null ? null : name.strip();
+        if (term != null && term.length() < MIN_NAME_SEARCH_LENGTH) {
+            throw new RequestValidationException("name must be at least " + MIN_NAME_SEARCH_LENGTH + " characters");
         }
-
-        if (requestBody.age() != null && !customer.getAge().equals(requestBody.age())) {
-            customer.setAge(requestBody.age());
-            changes = true;
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new RequestValidationException("minAge must not be greater than maxAge");
         }
 
-        if (requestBody.email() != null && !customer.getEmail().equals(requestBody.email())) {
-            if (customerDao.existCustomerWithEmail(requestBody.email())) {
-                throw new DuplicateResourceException("Email is already taken");
-            }
-
-            customer.setEmail(requestBody.email());
-            changes = true;
+        CustomerSearchSort searchSort;
+        if (sort != null) {
+            searchSort = CustomerSearchSort.fromValue(sort);
+        } else {
+            searchSort = term == null ? CustomerSearchSort.ID : CustomerSearchSort.RELEVANCE;
         }
-
-        if (!changes) {
-            throw new RequestValidationException("no changes found");
+        if (searchSort == CustomerSearchSort.RELEVANCE && term == null) {
+            throw new RequestValidationException("sort relevance requires a name");
         }
+        return new CustomerSearchCriteria(term, emailPrefix, minAge, maxAge, searchSort, pageSize(limit));
+    }
 
-        customerDao.updateCustomer(customer);
+    private static int pageSize(Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RequestValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
     }
 }
@@ -0,0 +1,63 @@
+package com.connor.customer.business;
+
+import com.connor.customer.dao.ReactiveCustomerDao;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerView;
+import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.connor.customer.business.CustomerService.DEFAULT_PAGE_SIZE;
+import static com.connor.customer.business.CustomerService.MAX_PAGE_SIZE;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerDao customerDao;
+
+    public ReactiveCustomerService(ReactiveCustomerDao customerDao) {
+        this.customerDao = customerDao;
+    }
+
+    public Flux<CustomerView> getCustomers(Long after, Integer limit) {
+        // always a page, as on the servlet side, so one request cannot pull the whole table
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return Flux.error(new RequestValidationException("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        return customerDao.selectCustomersAfterId(after == null ? 0L : after, pageSize);
+    }
+
+    public Mono<CustomerView> getCustomerById(Long id) {
+        return customerDao.selectCustomerById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer could not be found")));
+    }
+
+    public Mono<Void> addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
+        return customerDao.insertCustomer(new Customer(
+                customerRegistrationRequest.name(),
+                customerRegistrationRequest.email(),
+                customerRegistrationRequest.age()
+        )).then();
+    }
+
+    public Mono<Void> deleteCustomerById(Long customerId) {
+        return customerDao.deleteCustomer(customerId);
+    }
+
+    public Mono<Void> updateCustomer(Long customerId, CustomerUpdateRequest requestBody) {
+        if (requestBody.name() == null && requestBody.email() == null && requestBody.age() == null) {
+            return Mono.error(new RequestValidationException("no changes found"));
+        }
+
+        Customer changes = new Customer(requestBody.name(), requestBody.email(), requestBody.age());
+        changes.setId(customerId);
+        return customerDao.updateCustomer(changes).then();
+    }
+}
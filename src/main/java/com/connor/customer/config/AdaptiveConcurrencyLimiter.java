@@ -0,0 +1,94 @@
+package com.connor.customer.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient-style concurrency limit. Two moving averages of request latency are kept: a short one
+// for current conditions and a long one as the no-load baseline. While current latency stays within
+// tolerance of the baseline the limit grows by roughly its square root per sample; once queueing
+// pushes latency past that, the limit shrinks in proportion. Failed requests back off
+// multiplicatively (AIMD). Samples taken while well under the limit are ignored, since the limit
+// was not what held those requests back.
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 0.005;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public record Permit(long startNanos, int inFlight) {
+    }
+
+    // null when the priority's share of the limit is already in use
+    public Permit tryAcquire(RequestPriority priority, long nowNanos) {
+        int allowed = Math.max(1, (int) (limit * priority.getShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(nowNanos, current + 1);
+            }
+        }
+    }
+
+    public void release(Permit permit, long nowNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        sample(nowNanos - permit.startNanos(), permit.inFlight(), dropped);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            update(estimatedLimit * backoffRatio);
+            return;
+        }
+
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * SHORT_RTT_WEIGHT;
+        longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) * LONG_RTT_WEIGHT;
+        // let the baseline catch up quickly when things get faster, e.g. after a slow start
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        update(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,50 @@
+package com.connor.customer.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "customer.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(AdmissionControlProperties properties,
+                                                          ObjectProvider<MeterRegistry> registry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                properties.initialLimit(),
+                properties.minLimit(),
+                properties.maxLimit(),
+                properties.latencyTolerance(),
+                properties.backoffRatio());
+        registry.ifAvailable(meterRegistry -> {
+            Gauge.builder("customer.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("customer.admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently admitted")
+                    .register(meterRegistry);
+        });
+        return limiter;
+    }
+
+    // Outermost of the /api filters so shed requests cost as little as possible
+    @Bean
+    FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                          AdmissionControlProperties properties,
+                                                                          ObjectProvider<MeterRegistry> registry) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(new AdmissionControlFilter(
+                limiter, properties, registry.getIfAvailable(SimpleMeterRegistry::new)));
+        registration.addUrlPatterns("/api/v1/customers", "/api/v1/customers/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
@@ -0,0 +1,109 @@
+package com.connor.customer.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Sheds load before it reaches the database. Each client first needs a token from its own bucket
+// (429 when empty); the request then needs room under the adaptive concurrency limit for its
+// priority (503 when full). Both answers carry Retry-After and are cheap, so an overloaded service
+// spends its capacity on the requests it admitted instead of queueing everything until it times out.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Cache<String, TokenBucket> buckets;
+    private final AdmissionControlProperties properties;
+    private final MeterRegistry registry;
+    private final LongSupplier clock;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, AdmissionControlProperties properties,
+                                  MeterRegistry registry) {
+        this(limiter, properties, registry, System::nanoTime);
+    }
+
+    AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, AdmissionControlProperties properties,
+                           MeterRegistry registry, LongSupplier clock) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.registry = registry;
+        this.clock = clock;
+        // an idle client's bucket would be full again by now, so forgetting it changes nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(Duration.ofNanos((long) (properties.burst() / properties.ratePerSecond() * 1_000_000_000d)))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestPriority priority = priority(request);
+
+        long waitNanos = buckets.get(client(request), key -> new TokenBucket(properties.burst(), properties.ratePerSecond(), clock.getAsLong()))
+                .tryAcquire(clock.getAsLong());
+        if (waitNanos > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded", waitNanos, priority);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority, clock.getAsLong());
+        if (permit == null) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is at capacity", 1_000_000_000L, priority);
+            return;
+        }
+
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(permit, clock.getAsLong(), dropped);
+        }
+    }
+
+    static RequestPriority priority(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.endsWith("/bulk") || uri.endsWith("/import") || uri.endsWith("/export")) {
+            return RequestPriority.BULK;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return RequestPriority.READ;
+        }
+        return RequestPriority.WRITE;
+    }
+
+    private String client(HttpServletRequest request) {
+        if (properties.clientHeader() == null) {
+            return request.getRemoteAddr();
+        }
+        String client = request.getHeader(properties.clientHeader());
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, long retryAfterNanos,
+                        RequestPriority priority) throws IOException {
+        long seconds = Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L);
+        Counter.builder("customer.admission.rejected")
+                .description("Requests turned away by admission control")
+                .tag("status", Integer.toString(status.value()))
+                .tag("priority", priority.name().toLowerCase())
+                .register(registry)
+                .increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(status.value(), message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        // how far recent latency may drift above the no-load baseline before the limit shrinks
+        @DefaultValue("2.0") double latencyTolerance,
+        // multiplicative decrease applied when a request fails with a 5xx
+        @DefaultValue("0.9") double backoffRatio,
+        // clients are told apart by remote address (behind a proxy, set server.forward-headers-strategy).
+        // Only name a header here if a trusted proxy or auth layer sets it and drops the client's own copy:
+        // anyone who can choose its value gets a fresh bucket per value
+        String clientHeader,
+        @DefaultValue("50") double ratePerSecond,
+        @DefaultValue("100") int burst,
+        @DefaultValue("10000") long maxClients
+) {
+}
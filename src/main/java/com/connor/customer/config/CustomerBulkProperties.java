@@ -0,0 +1,11 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.bulk")
+public record CustomerBulkProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("10000") int maxRequestSize
+) {
+}
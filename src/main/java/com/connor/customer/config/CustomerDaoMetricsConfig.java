@@ -0,0 +1,32 @@
+package com.connor.customer.config;
+
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.dao.MeteredCustomerDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer.metrics.dao.enabled", matchIfMissing = true)
+public class CustomerDaoMetricsConfig {
+
+    // The bean name ("jdbc", "jpa") becomes the implementation tag
+    @Bean
+    static BeanPostProcessor meteredCustomerDaoPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CustomerDao customerDao && !(bean instanceof MeteredCustomerDao)) {
+                    MeterRegistry meterRegistry = registry.getIfAvailable();
+                    if (meterRegistry != null) {
+                        return new MeteredCustomerDao(customerDao, meterRegistry, beanName);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.registration-queue")
+public record CustomerRegistrationQueueProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("500") int batchSize,
+        // how long the writer waits for a batch to fill before committing what it has
+        @DefaultValue("5ms") Duration batchDelay,
+        // how long a request waits for room in a full queue before it is turned away with 503
+        @DefaultValue("100ms") Duration offerTimeout,
+        @DefaultValue("10m") Duration statusRetention,
+        @DefaultValue("30s") Duration shutdownTimeout
+) {
+}
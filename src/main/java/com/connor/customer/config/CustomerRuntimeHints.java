@@ -0,0 +1,57 @@
+package com.connor.customer.config;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeBucket;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerBulkRegistrationResponse;
+import com.connor.customer.payload.CustomerImportResult;
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerRegistrationResult;
+import com.connor.customer.payload.CustomerRegistrationTicket;
+import com.connor.customer.payload.CustomerStatistics;
+import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.customer.payload.CustomerView;
+import com.github.javafaker.Faker;
+import com.github.javafaker.Name;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// What a native image needs that AOT processing cannot see: payloads written by hand through the
+// ObjectMapper or cached instead of returned from a controller, the CustomerView constructor called by
+// the JPQL projections, and the reflection, resources and JNI of Faker and zstd-jni.
+public class CustomerRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                CustomerView.class,
+                CustomerPage.class,
+                CustomerRegistrationRequest.class,
+                CustomerUpdateRequest.class,
+                CustomerRegistrationTicket.class,
+                CustomerRegistrationResult.class,
+                CustomerBulkRegistrationResponse.class,
+                CustomerImportResult.class,
+                CustomerStatistics.class,
+                CustomerAgeBucket.class,
+                CustomerAgeCount.class);
+        hints.reflection().registerType(Customer.class,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Faker resolves "#{Name.first_name}" style expressions by calling its providers reflectively
+        hints.reflection().registerType(Faker.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(Name.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerPattern("en.yml");
+        hints.resources().registerPattern("en/*.yml");
+
+        // the native library is unpacked from the jar, then reads and writes the stream positions through JNI
+        hints.resources().registerPattern("*/*/libzstd-jni-*");
+        hints.jni().registerType(ZstdOutputStreamNoFinalizer.class, MemberCategory.DECLARED_FIELDS);
+    }
+}
@@ -0,0 +1,41 @@
+package com.connor.customer.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "customer.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.idempotency.persistent", havingValue = "true")
+    PostgresIdempotencyPersistence postgresIdempotencyPersistence(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+        return new PostgresIdempotencyPersistence(jdbcTemplate, properties.purgeInterval(), properties.claimLease());
+    }
+
+    @Bean
+    IdempotencyStore idempotencyStore(IdempotencyProperties properties,
+                                      ObjectProvider<PostgresIdempotencyPersistence> persistence) {
+        return new IdempotencyStore(properties.ttl(), properties.maximumSize(), persistence.getIfAvailable());
+    }
+
+    // Innermost of the /api filters so responses are stored before compression and replays are compressed afresh
+    @Bean
+    FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+                                                                ErrorAttributes errorAttributes,
+                                                                IdempotencyProperties properties) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(new IdempotencyFilter(
+                store, errorAttributes, properties.waitTimeout(), (int) properties.maxBodySize().toBytes()));
+        registration.addUrlPatterns("/api/v1/customers", "/api/v1/customers/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,259 @@
+package com.connor.customer.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Writes carrying an Idempotency-Key run once; retries get the stored response back without reaching
+// the controller. A retry that arrives while the first attempt is still running waits for it. Reusing
+// a key for a different body is rejected with 422. 5xx responses are not kept, so those can be retried.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String REPLAYED = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG);
+
+    private final IdempotencyStore store;
+    private final ErrorAttributes errorAttributes;
+    private final Duration waitTimeout;
+    private final int maxBodySize;
+
+    public IdempotencyFilter(IdempotencyStore store, ErrorAttributes errorAttributes, Duration waitTimeout, int maxBodySize) {
+        this.store = store;
+        this.errorAttributes = errorAttributes;
+        this.waitTimeout = waitTimeout;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean write = HttpMethod.POST.matches(method)
+                || HttpMethod.PUT.matches(method)
+                || HttpMethod.PATCH.matches(method)
+                || HttpMethod.DELETE.matches(method);
+        return !write || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getContentLengthLong() > maxBodySize
+                ? null
+                : request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body == null || body.length > maxBodySize) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Requests with an " + IDEMPOTENCY_KEY + " are limited to " + maxBodySize + " bytes");
+            return;
+        }
+
+        String key = scope(request, idempotencyKey);
+        String fingerprint = DigestUtils.md5DigestAsHex(body);
+        HttpServletRequest bufferedRequest = new BufferedBodyRequest(request, body);
+
+        while (true) {
+            CompletableFuture<IdempotentResponse> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> earlier = store.claim(key, claim);
+            if (earlier == null) {
+                execute(bufferedRequest, response, chain, key, claim, fingerprint);
+                return;
+            }
+
+            IdempotentResponse previous;
+            try {
+                previous = earlier.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+                return;
+            } catch (ExecutionException e) {
+                previous = null;
+            }
+
+            // the earlier attempt was not kept, so this one gets to run
+            if (previous == null) {
+                continue;
+            }
+            if (!previous.fingerprint().equals(fingerprint)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        IDEMPOTENCY_KEY + " has already been used for a different request");
+                return;
+            }
+            replay(previous, response);
+            return;
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String key, CompletableFuture<IdempotentResponse> claim, String fingerprint)
+            throws ServletException, IOException {
+        CapturingResponse capturing = new CapturingResponse(response);
+        IdempotentResponse outcome = null;
+        try {
+            chain.doFilter(request, capturing);
+            if (capturing.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                outcome = capture(request, capturing, fingerprint);
+            }
+        } finally {
+            store.complete(key, claim, outcome);
+            capturing.copyBodyToResponse();
+        }
+    }
+
+    private IdempotentResponse capture(HttpServletRequest request, CapturingResponse response, String fingerprint) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, response.getContentType());
+        }
+        for (String name : STORED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+
+        String errorMessage = null;
+        if (response.errorSent) {
+            // @ResponseStatus exceptions reach the error page through the exception, not the sendError reason
+            Throwable error = errorAttributes.getError(new ServletWebRequest(request));
+            errorMessage = error != null && error.getMessage() != null
+                    ? error.getMessage()
+                    : Objects.requireNonNullElse(response.errorMessage, "");
+        }
+        return new IdempotentResponse(fingerprint, response.getStatus(), errorMessage, headers, response.getContentAsByteArray());
+    }
+
+    private static void replay(IdempotentResponse previous, HttpServletResponse response) throws IOException {
+        response.setHeader(REPLAYED, "true");
+        previous.headers().forEach(response::setHeader);
+        if (previous.errorMessage() != null) {
+            response.sendError(previous.status(), previous.errorMessage());
+            return;
+        }
+        response.setStatus(previous.status());
+        response.setContentLength(previous.body().length);
+        response.getOutputStream().write(previous.body());
+    }
+
+    // keys are only meaningful for the endpoint they were sent to
+    private static String scope(HttpServletRequest request, String idempotencyKey) {
+        String query = request.getQueryString() == null ? "" : "?" + request.getQueryString();
+        return request.getMethod() + " " + request.getRequestURI() + query + " " + idempotencyKey;
+    }
+
+    private static final class CapturingResponse extends ContentCachingResponseWrapper {
+
+        private boolean errorSent;
+        private String errorMessage;
+
+        private CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            errorSent = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            errorSent = true;
+            errorMessage = msg;
+            super.sendError(sc, msg);
+        }
+    }
+
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already buffered, so it is available and read in one go
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
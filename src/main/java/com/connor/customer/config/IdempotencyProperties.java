@@ -0,0 +1,24 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("100000") long maximumSize,
+        // how long a retry waits for the first request with the same key before giving up with 409
+        @DefaultValue("10s") Duration waitTimeout,
+        // request bodies are buffered to fingerprint them, so keyed requests are capped
+        @DefaultValue("2MB") DataSize maxBodySize,
+        // also claim keys and keep responses in Postgres so they survive restarts and are shared between instances
+        @DefaultValue("false") boolean persistent,
+        @DefaultValue("1h") Duration purgeInterval,
+        // how long an instance that died mid-request keeps its keys from others; longer requests may run twice
+        @DefaultValue("1m") Duration claimLease
+) {
+}
@@ -0,0 +1,90 @@
+package com.connor.customer.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Completed responses live in a bounded cache that drops them after the TTL. Requests still running
+// sit in the same map as incomplete futures, so a retry that arrives mid-flight waits on the first
+// attempt instead of racing it. Completing with null (a 5xx or an exception) removes the entry and
+// lets the next retry run for real. Postgres, when configured, extends the same to other instances:
+// a local claim is also claimed there, and a key another instance is running is waited on by polling.
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final AsyncCache<String, IdempotentResponse> responses;
+    private final PostgresIdempotencyPersistence persistence;
+    private final Duration ttl;
+
+    public IdempotencyStore(Duration ttl, long maximumSize, PostgresIdempotencyPersistence persistence) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .buildAsync();
+        this.persistence = persistence;
+        this.ttl = ttl;
+    }
+
+    // Returns null when the caller now owns the key and must finish it with complete(), otherwise the
+    // possibly still running response of the earlier request with the same key
+    CompletableFuture<IdempotentResponse> claim(String key, CompletableFuture<IdempotentResponse> claim) {
+        var map = responses.asMap();
+        CompletableFuture<IdempotentResponse> existing;
+        while ((existing = map.putIfAbsent(key, claim)) != null) {
+            if (!abandoned(existing)) {
+                return existing;
+            }
+            // the cache drops abandoned entries asynchronously; take it over rather than spin until it does
+            if (map.replace(key, existing, claim)) {
+                break;
+            }
+        }
+        return persistence == null ? null : claimPersisted(key, claim);
+    }
+
+    void complete(String key, CompletableFuture<IdempotentResponse> claim, IdempotentResponse response) {
+        // stored before local waiters see it, so one that goes on to claim the key finds it released or answered
+        if (persistence != null) {
+            try {
+                if (response != null) {
+                    persistence.save(key, response, ttl);
+                } else {
+                    persistence.release(key);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not persist idempotency key, keeping it in memory only", e);
+            }
+        }
+        claim.complete(response);
+    }
+
+    private static boolean abandoned(CompletableFuture<IdempotentResponse> future) {
+        return future.isDone() && (future.isCompletedExceptionally() || future.join() == null);
+    }
+
+    // an unreachable database degrades to in-memory only rather than failing the write itself
+    private CompletableFuture<IdempotentResponse> claimPersisted(String key, CompletableFuture<IdempotentResponse> claim) {
+        try {
+            if (persistence.claim(key)) {
+                return null;
+            }
+            Optional<IdempotentResponse> stored = persistence.find(key);
+            if (stored.isPresent()) {
+                claim.complete(stored.get());
+            } else {
+                persistence.awaitResponse(key, claim);
+            }
+            return claim;
+        } catch (DataAccessException e) {
+            log.warn("Could not claim idempotency key in Postgres, deduplicating in memory only", e);
+            return null;
+        }
+    }
+}
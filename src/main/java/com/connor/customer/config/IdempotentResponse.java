@@ -0,0 +1,14 @@
+package com.connor.customer.config;
+
+import java.util.Map;
+
+// errorMessage is set when the original response went through sendError and is replayed the same way,
+// so the error body is rendered again rather than stored
+public record IdempotentResponse(
+        String fingerprint,
+        int status,
+        String errorMessage,
+        Map<String, String> headers,
+        byte[] body
+) {
+}
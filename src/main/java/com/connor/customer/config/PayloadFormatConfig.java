@@ -0,0 +1,44 @@
+package com.connor.customer.config;
+
+import com.connor.customer.http.CustomerProtobufHttpMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+import java.util.List;
+
+// CBOR and Smile need no wiring: Spring MVC registers their converters after JSON when the Jackson modules are present.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PayloadFormatConfig implements WebMvcConfigurer {
+
+    // Appended rather than declared as a bean, which would put it first and make protobuf the answer to Accept: */*
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CustomerProtobufHttpMessageConverter());
+    }
+
+    // Reuses server.compression mime types and threshold so gzip and zstd kick in for the same responses.
+    // Ordered outside the idempotency filter, which must see the uncompressed body.
+    @Bean
+    @ConditionalOnProperty(name = "customer.compression.zstd.enabled", havingValue = "true")
+    FilterRegistrationBean<ZstdCompressionFilter> zstdCompressionFilter(ServerProperties serverProperties,
+                                                                        ZstdCompressionProperties zstdProperties) {
+        var compression = serverProperties.getCompression();
+        FilterRegistrationBean<ZstdCompressionFilter> registration = new FilterRegistrationBean<>(new ZstdCompressionFilter(
+                Arrays.stream(compression.getMimeTypes()).map(MediaType::parseMediaType).toList(),
+                (int) compression.getMinResponseSize().toBytes(),
+                zstdProperties.level()));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,43 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+// customer.persistence.backend picks the CustomerDao (jdbc by default, or jpa). Hibernate and the Spring
+// Data JPA repositories are on the classpath either way, so their auto-configuration is dropped here,
+// before any of it is parsed, unless jpa is picked: no entity manager factory, entity metamodel, schema
+// validation or CustomerRepository proxy for a JDBC deployment.
+public class PersistenceBackendAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+    static final String BACKEND = "customer.persistence.backend";
+    static final String JPA = "jpa";
+
+    private static final Set<String> JPA_AUTO_CONFIGURATIONS = Set.of(
+            HibernateJpaAutoConfiguration.class.getName(),
+            JpaRepositoriesAutoConfiguration.class.getName());
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean jpa = JPA.equals(environment.getProperty(BACKEND));
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            // candidates an earlier filter already removed are null
+            String candidate = autoConfigurationClasses[i];
+            matches[i] = jpa || candidate == null || !JPA_AUTO_CONFIGURATIONS.contains(candidate);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,185 @@
+package com.connor.customer.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps idempotent responses in the idempotency_key table (V8) and purges expired rows in the background.
+// A key is claimed with a pending row (V9) before the request runs, so other instances wait for it rather
+// than running it too. The claim is a lease: if the instance dies mid-request, the key frees up once it expires.
+public class PostgresIdempotencyPersistence implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresIdempotencyPersistence.class);
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration claimLease;
+    private final ScheduledExecutorService scheduler;
+
+    public PostgresIdempotencyPersistence(JdbcTemplate jdbcTemplate, Duration purgeInterval, Duration claimLease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.claimLease = claimLease;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = purgeInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // true when this instance now owns the key, false when another claim or a stored response is still live
+    boolean claim(String key) {
+        var sql = """
+                INSERT INTO idempotency_key (key, expires_at)
+                VALUES (?, ?)
+                ON CONFLICT (key) DO UPDATE
+                    SET fingerprint   = NULL,
+                        status        = NULL,
+                        error_message = NULL,
+                        headers       = NULL,
+                        body          = NULL,
+                        expires_at    = EXCLUDED.expires_at
+                    WHERE idempotency_key.expires_at <= now()
+                """;
+        return jdbcTemplate.update(sql, key, Timestamp.from(Instant.now().plus(claimLease))) == 1;
+    }
+
+    // gives up a claim without a response to keep, so the next attempt can run
+    void release(String key) {
+        var sql = """
+                DELETE
+                FROM idempotency_key
+                WHERE key = ?
+                  AND status IS NULL
+                """;
+        jdbcTemplate.update(sql, key);
+    }
+
+    // Completes the claim with the response once whoever holds the key stores one, or with null once they release
+    // it or their lease runs out, so that a waiting retry goes on to claim the key itself
+    void awaitResponse(String key, CompletableFuture<IdempotentResponse> claim) {
+        scheduler.schedule(() -> poll(key, claim), POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(String key, CompletableFuture<IdempotentResponse> claim) {
+        try {
+            Optional<IdempotentResponse> stored = find(key);
+            if (stored.isPresent()) {
+                claim.complete(stored.get());
+            } else if (isClaimed(key)) {
+                awaitResponse(key, claim);
+            } else {
+                claim.complete(null);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not poll idempotency key, letting the waiting request run", e);
+            claim.complete(null);
+        }
+    }
+
+    Optional<IdempotentResponse> find(String key) {
+        var sql = """
+                SELECT fingerprint, status, error_message, headers, body
+                FROM idempotency_key
+                WHERE key = ?
+                  AND status IS NOT NULL
+                  AND expires_at > now()
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new IdempotentResponse(
+                        rs.getString("fingerprint"),
+                        rs.getInt("status"),
+                        rs.getString("error_message"),
+                        parseHeaders(rs.getString("headers")),
+                        rs.getBytes("body")), key)
+                .stream()
+                .findFirst();
+    }
+
+    private boolean isClaimed(String key) {
+        var sql = """
+                SELECT EXISTS (
+                    SELECT 1
+                    FROM idempotency_key
+                    WHERE key = ?
+                      AND status IS NULL
+                      AND expires_at > now()
+                )
+                """;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, key));
+    }
+
+    // Fills in the claim, or inserts the row if the claim never reached the database.
+    // The first response stored for a key wins, just like in memory
+    void save(String key, IdempotentResponse response, Duration ttl) {
+        var sql = """
+                INSERT INTO idempotency_key (key, fingerprint, status, error_message, headers, body, expires_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (key) DO UPDATE
+                    SET fingerprint   = EXCLUDED.fingerprint,
+                        status        = EXCLUDED.status,
+                        error_message = EXCLUDED.error_message,
+                        headers       = EXCLUDED.headers,
+                        body          = EXCLUDED.body,
+                        expires_at    = EXCLUDED.expires_at
+                    WHERE idempotency_key.status IS NULL
+                """;
+        jdbcTemplate.update(sql,
+                key,
+                response.fingerprint(),
+                response.status(),
+                response.errorMessage(),
+                formatHeaders(response.headers()),
+                response.body(),
+                Timestamp.from(Instant.now().plus(ttl)));
+    }
+
+    void purgeExpired() {
+        var sql = """
+                DELETE
+                FROM idempotency_key
+                WHERE expires_at <= now()
+                """;
+        try {
+            int purged = jdbcTemplate.update(sql);
+            log.debug("Purged {} expired idempotency keys", purged);
+        } catch (DataAccessException e) {
+            log.warn("Could not purge expired idempotency keys", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    static String formatHeaders(Map<String, String> headers) {
+        StringJoiner lines = new StringJoiner("\n");
+        headers.forEach((name, value) -> lines.add(name + ": " + value));
+        return lines.toString();
+    }
+
+    static Map<String, String> parseHeaders(String lines) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String line : lines.split("\n")) {
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.put(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,91 @@
+package com.connor.customer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.readYourWritesWindow()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // Runs after the connection limiter (so the primary keeps it) and before the SQL tracer (so replicas are traced too)
+    @Bean
+    static BeanPostProcessor readWriteRoutingDataSourcePostProcessor(ObjectProvider<ReplicaProperties> replicaProperties,
+                                                                     ObjectProvider<DataSourceProperties> dataSourceProperties) {
+        class ReadWriteRoutingPostProcessor implements BeanPostProcessor, Ordered {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource primary && beanName.equals("dataSource")) {
+                    return routing(primary, replicaProperties.getObject(), dataSourceProperties.getObject());
+                }
+                return bean;
+            }
+        }
+        return new ReadWriteRoutingPostProcessor();
+    }
+
+    private static DataSource routing(DataSource primary, ReplicaProperties replicas, DataSourceProperties primaryProperties) {
+        String username = replicas.username() != null ? replicas.username() : primaryProperties.determineUsername();
+        String password = replicas.password() != null ? replicas.password() : primaryProperties.determinePassword();
+        List<String> urls = replicas.urls();
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(replicas.maximumPoolSize());
+            replica.setReadOnly(true);
+            targets.put("replica-" + i, replica);
+        }
+
+        // Defaults are given up front so the proxy does not need a connection at startup
+        LazyConnectionDataSourceProxy lazy = new ClosingLazyConnectionDataSourceProxy();
+        lazy.setTargetDataSource(new ReadWriteRoutingDataSource(primary, targets, replicas.healthCheckInterval()));
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        lazy.afterPropertiesSet();
+        return lazy;
+    }
+
+    private static class ClosingLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements AutoCloseable {
+        @Override
+        public void close() throws Exception {
+            if (getTargetDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// Replicas share the primary's credentials unless username/password are set here.
+@ConfigurationProperties(prefix = "customer.replicas")
+public record ReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("10") int maximumPoolSize,
+        @DefaultValue("5s") Duration healthCheckInterval,
+        @DefaultValue("2s") Duration readYourWritesWindow
+) {
+}
@@ -0,0 +1,19 @@
+package com.connor.customer.config;
+
+// Each class may only use its share of the concurrency limit, so as the limit shrinks bulk work is
+// shed first, then single writes, and reads keep the whole limit to themselves.
+public enum RequestPriority {
+    READ(1.0),
+    WRITE(0.9),
+    BULK(0.5);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,53 @@
+package com.connor.customer.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Keeps the most recent slow statements; once full, each new entry overwrites the oldest.
+public class SlowQueryLog {
+
+    private final SlowQuery[] entries;
+    private int next;
+    private int size;
+
+    public SlowQueryLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+        }
+        this.entries = new SlowQuery[capacity];
+    }
+
+    public synchronized void add(SlowQuery slowQuery) {
+        entries[next] = slowQuery;
+        next = (next + 1) % entries.length;
+        size = Math.min(size + 1, entries.length);
+    }
+
+    // Newest first
+    public synchronized List<SlowQuery> entries() {
+        List<SlowQuery> result = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            result.add(entries[(next - i + entries.length) % entries.length]);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        next = 0;
+        size = 0;
+    }
+
+    public record SlowQuery(
+            Instant timestamp,
+            String sql,
+            int bindCount,
+            double elapsedMillis,
+            // affected rows for updates, rows fetched for queries
+            Long rows,
+            String caller
+    ) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.connor.customer.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer.sql-trace.enabled", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    @Bean
+    SlowQueryLog slowQueryLog(SqlTraceProperties properties) {
+        return new SlowQueryLog(properties.capacity());
+    }
+
+    @Bean
+    SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+
+    // Not ordered, so it runs after the connection-limiting wrapper and ends up outermost
+    @Bean
+    static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<SqlTraceProperties> properties,
+                                                            ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource(
+                            dataSource,
+                            slowQueryLog.getObject(),
+                            properties.getObject().slowThreshold());
+                }
+                return bean;
+            }
+        };
+    }
+}
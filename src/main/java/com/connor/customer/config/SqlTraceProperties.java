@@ -0,0 +1,14 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.sql-trace")
+public record SqlTraceProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("200ms") Duration slowThreshold,
+        @DefaultValue("100") int capacity
+) {
+}
@@ -0,0 +1,287 @@
+package com.connor.customer.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+
+// Times every execute call and counts binds, plus affected rows for updates. Statements slower than the
+// threshold are logged and kept in the SlowQueryLog together with the business-layer method that issued
+// them. Connections and statements go through a proxy, one reflective call per JDBC call made on them.
+// A slow query's result set is proxied as well so the rows fetched can be counted; it is recorded when
+// that result set closes. Fast queries get their result set untouched, so reading rows costs nothing
+// extra. For queries the time is until the first rows arrive, which is all of them unless a fetch size is set.
+public class TracingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TracingDataSource.class);
+    private static final String CALLER_PACKAGE = "com.connor.customer.business.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final SlowQueryLog slowQueryLog;
+    private final long slowThresholdNanos;
+
+    public TracingDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog, Duration slowThreshold) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return tracing(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return tracing(super.getConnection(username, password));
+    }
+
+    // Lets the container's inferred destroy method still shut the wrapped pool down
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection tracing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(connection)) {
+                        return connection;
+                    }
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "prepareStatement" -> tracing((Statement) result, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall" -> tracing((Statement) result, CallableStatement.class, (String) args[0]);
+                        case "createStatement" -> tracing((Statement) result, Statement.class, null);
+                        default -> result;
+                    };
+                });
+    }
+
+    private Object tracing(Statement statement, Class<? extends Statement> type, String preparedSql) {
+        StatementTrace trace = new StatementTrace(preparedSql);
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(statement)) {
+                        return statement;
+                    }
+                    if (name.startsWith("set") && args != null && args.length >= 2) {
+                        trace.bindCount++;
+                    } else if (name.startsWith("execute")) {
+                        trace.flush();
+                        return execute(statement, method, args, trace);
+                    } else if (name.equals("getResultSet") && trace.pendingQuery != null) {
+                        ResultSet resultSet = (ResultSet) invoke(statement, method, args);
+                        SlowStatement slow = trace.pendingQuery;
+                        trace.pendingQuery = null;
+                        if (resultSet == null) {
+                            record(slow, null);
+                            return null;
+                        }
+                        return counting(resultSet, slow, trace);
+                    } else if (name.equals("close")) {
+                        // closing the statement closes its result set without going through the proxy
+                        trace.flush();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private ResultSet counting(ResultSet resultSet, SlowStatement slow, StatementTrace trace) {
+        RowCount rows = new RowCount(slow);
+        trace.openRows = rows;
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(resultSet)) {
+                        return resultSet;
+                    }
+                    if (name.equals("close")) {
+                        try {
+                            return invoke(resultSet, method, args);
+                        } finally {
+                            rows.finish();
+                        }
+                    }
+                    Object result = invoke(resultSet, method, args);
+                    if (name.equals("next") && (Boolean) result) {
+                        rows.count++;
+                    }
+                    return result;
+                });
+    }
+
+    private Object execute(Statement statement, Method method, Object[] args, StatementTrace trace) throws Throwable {
+        if (args != null && args.length > 0 && args[0] instanceof String sql) {
+            trace.sql = sql;
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invoke(statement, method, args);
+        } catch (Throwable e) {
+            SlowStatement slow = trace.slow(System.nanoTime() - start);
+            if (slow != null) {
+                record(slow, null);
+            }
+            throw e;
+        }
+        SlowStatement slow = trace.slow(System.nanoTime() - start);
+        if (slow == null) {
+            return result;
+        }
+        if (result instanceof ResultSet resultSet) {
+            return counting(resultSet, slow, trace);
+        }
+        if (Boolean.TRUE.equals(result)) {
+            // execute() with rows: counted once the caller asks for the result set
+            trace.pendingQuery = slow;
+            return result;
+        }
+        record(slow, affectedRows(statement, result));
+        return result;
+    }
+
+    private void record(SlowStatement slow, Long rows) {
+        SlowQueryLog.SlowQuery slowQuery = new SlowQueryLog.SlowQuery(
+                Instant.now(), slow.sql(), slow.bindCount(), slow.elapsedNanos() / 1_000_000.0, rows, slow.caller());
+        slowQueryLog.add(slowQuery);
+        log.warn("Slow SQL ({} ms, {} binds, {} rows) from {}: {}",
+                String.format("%.1f", slowQuery.elapsedMillis()), slow.bindCount(), rows == null ? "?" : rows,
+                slow.caller(), slow.sql());
+    }
+
+    private static Long affectedRows(Statement statement, Object result) throws SQLException {
+        if (result instanceof Boolean hasResultSet) {
+            return hasResultSet ? null : (long) Math.max(0, statement.getUpdateCount());
+        }
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        return null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(CALLER_PACKAGE) && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(CALLER_PACKAGE.length()) + "." + frame.getMethodName())
+                .orElse(null));
+    }
+
+    // Captured when the statement ran, so a query recorded later still names the caller and its binds
+    private record SlowStatement(String sql, int bindCount, long elapsedNanos, String caller) {
+    }
+
+    // A statement is used by one thread at a time, so no synchronisation is needed here.
+    private final class StatementTrace {
+
+        private String sql;
+        private int bindCount;
+        private SlowStatement pendingQuery;
+        private RowCount openRows;
+
+        private StatementTrace(String sql) {
+            this.sql = sql;
+        }
+
+        // null when under the threshold; either way the binds start over for the next execution
+        private SlowStatement slow(long elapsedNanos) {
+            SlowStatement slow = elapsedNanos >= slowThresholdNanos
+                    ? new SlowStatement(sql, bindCount, elapsedNanos, caller())
+                    : null;
+            bindCount = 0;
+            return slow;
+        }
+
+        // re-executing or closing the statement implicitly closes the previous result set
+        private void flush() {
+            if (openRows != null) {
+                openRows.finish();
+                openRows = null;
+            }
+            if (pendingQuery != null) {
+                record(pendingQuery, null);
+                pendingQuery = null;
+            }
+        }
+    }
+
+    private final class RowCount {
+
+        private final SlowStatement slow;
+        private long count;
+        private boolean recorded;
+
+        private RowCount(SlowStatement slow) {
+            this.slow = slow;
+        }
+
+        private void finish() {
+            if (!recorded) {
+                recorded = true;
+                record(slow, count);
+            }
+        }
+    }
+}
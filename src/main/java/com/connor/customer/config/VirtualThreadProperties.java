@@ -0,0 +1,11 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.virtual-threads")
+public record VirtualThreadProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000") int maxQueuedConnectionRequests
+) {
+}
@@ -0,0 +1,342 @@
+package com.connor.customer.config;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compresses responses with zstd for clients that accept it. Tomcat only offers gzip, and it steps
+// aside once Content-Encoding is set here. Bodies are buffered up to minSize bytes so small responses
+// go out uncompressed; past that the decision is made and the rest streams through the encoder.
+// Async responses are finished when the request completes; non-blocking writers are not compressed.
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+    private static final String ZSTD = "zstd";
+
+    private final List<MediaType> mimeTypes;
+    private final int minSize;
+    private final int level;
+
+    public ZstdCompressionFilter(List<MediaType> mimeTypes, int minSize, int level) {
+        this.mimeTypes = mimeTypes;
+        this.minSize = minSize;
+        this.level = level;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!acceptsZstd(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        CompressingResponse compressing = new CompressingResponse(response);
+        try {
+            chain.doFilter(request, compressing);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new FinishOnComplete(compressing));
+            } else {
+                compressing.finish();
+            }
+        }
+    }
+
+    static boolean acceptsZstd(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(ZSTD)) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean compressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private DiscardableOutputStream discarding;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        // the final length is unknown until the encoder is done, so lengths from the app are dropped
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) throws IOException {
+                        if (target == null) {
+                            buffer.write(bytes, offset, length);
+                            if (buffer.size() >= minSize) {
+                                decide();
+                            }
+                            return;
+                        }
+                        target.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (target != null) {
+                            target.flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target == null || target instanceof ZstdOutputStream || ((ServletOutputStream) target).isReady();
+                    }
+
+                    // the encoder cannot honour isReady(), so a non-blocking writer gets the response's own stream
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        try {
+                            if (target == null) {
+                                target = getResponse().getOutputStream();
+                                buffer.writeTo(target);
+                                buffer.reset();
+                            }
+                            getResponse().getOutputStream().setWriteListener(writeListener);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        // whatever was encoded so far is dropped, so the next write decides afresh
+        @Override
+        public void reset() {
+            super.reset();
+            discardEncoder();
+            ((HttpServletResponse) getResponse()).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (discardEncoder()) {
+                removeContentEncoding();
+            }
+        }
+
+        // true when the response was being compressed
+        private boolean discardEncoder() {
+            buffer.reset();
+            writer = null;
+            boolean compressing = target instanceof ZstdOutputStream;
+            if (compressing) {
+                discarding.discard = true;
+                try {
+                    target.close();
+                } catch (IOException e) {
+                    // only the native encoder is released here, its output goes nowhere
+                }
+            }
+            target = null;
+            return compressing;
+        }
+
+        // the servlet API cannot remove a single header, so reset them all and put back everything else
+        private void removeContentEncoding() {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            int status = response.getStatus();
+            String contentType = response.getContentType();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : response.getHeaderNames()) {
+                if (!HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                        && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)
+                        && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                    headers.put(name, List.copyOf(response.getHeaders(name)));
+                }
+            }
+            response.reset();
+            response.setStatus(status);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        }
+
+        private void decide() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (compressible(getContentType()) && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, ZSTD);
+                // a strong ETag promises identical bytes, which no longer holds once encoded
+                String etag = response.getHeader(HttpHeaders.ETAG);
+                if (etag != null && !etag.startsWith("W/")) {
+                    response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+                }
+                discarding = new DiscardableOutputStream(response.getOutputStream());
+                target = new ZstdOutputStream(discarding, level);
+            } else {
+                target = response.getOutputStream();
+            }
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                if (buffer.size() > 0) {
+                    getResponse().setContentLength(buffer.size());
+                    buffer.writeTo(getResponse().getOutputStream());
+                }
+                return;
+            }
+            if (target instanceof ZstdOutputStream zstd) {
+                zstd.close();
+            }
+        }
+    }
+
+    private record FinishOnComplete(CompressingResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            response.finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    // lets a reset close the encoder without its final frame reaching the response
+    private static final class DiscardableOutputStream extends FilterOutputStream {
+
+        private boolean discard;
+
+        private DiscardableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (!discard) {
+                out.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!discard) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!discard) {
+                out.flush();
+            }
+        }
+
+        // the response stream is the container's to close
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.connor.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.compression.zstd")
+public record ZstdCompressionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("3") int level
+) {
+}
@@ -0,0 +1,193 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerFileFormat;
+import com.connor.customer.payload.CustomerImportResult;
+import com.connor.customer.utils.CsvUtils;
+import com.connor.exception.RequestValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Repository
+public class CustomerCopyImporter {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> CSV_COLUMNS = Set.of("id", "name", "email", "age");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CustomerCopyImporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // must run inside a transaction: the staging table is dropped on commit
+    public CustomerImportResult importCustomers(CustomerFileFormat format, InputStream inputStream) {
+        return jdbcTemplate.execute((ConnectionCallback<CustomerImportResult>) con -> {
+            if (con.getAutoCommit()) {
+                throw new IllegalStateException("customer import requires an active transaction");
+            }
+            createStagingTable(con);
+
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            long rowsRead;
+            try {
+                rowsRead = switch (format) {
+                    case CSV -> copyCsv(copyManager, new BufferedInputStream(inputStream, COPY_BUFFER_SIZE));
+                    case NDJSON -> copyNdjson(copyManager, inputStream);
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                // class 22 covers malformed copy data such as a wrong number of columns
+                if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                    throw new RequestValidationException("invalid import file: " + e.getMessage());
+                }
+                throw e;
+            }
+
+            long rowsImported = mergeStagingTable(con);
+            return new CustomerImportResult(rowsRead, rowsImported, rowsRead - rowsImported);
+        });
+    }
+
+    private static void createStagingTable(Connection con) throws SQLException {
+        var sql = """
+                CREATE TEMP TABLE customer_import (
+                    id TEXT,
+                    name TEXT,
+                    email TEXT,
+                    age TEXT
+                ) ON COMMIT DROP
+                """;
+        try (Statement statement = con.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long mergeStagingTable(Connection con) throws SQLException {
+        // Ids come from pooled blocks as in CustomerIdAllocator, one nextval per ID_ALLOCATION_SIZE rows rather than per row.
+        // ON CONFLICT DO NOTHING also skips repeated emails within the file itself
+        var sql = """
+                WITH rows AS (
+                    SELECT name, email, age::int AS age, row_number() OVER () - 1 AS n
+                    FROM customer_import
+                    WHERE name <> ''
+                      AND email <> ''
+                      AND age ~ '^[0-9]{1,9}$'
+                ), blocks AS (
+                    SELECT nextval('customer_id_seq') AS hi, b - 1 AS b
+                    FROM generate_series(1, (SELECT (count(*) + %1$d - 1) / %1$d FROM rows)) AS b
+                )
+                INSERT INTO customer (id, name, email, age)
+                SELECT blocks.hi - %1$d + 1 + mod(rows.n, %1$d), rows.name, rows.email, rows.age
+                FROM rows
+                JOIN blocks ON blocks.b = rows.n / %1$d
+                ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+                """.formatted(Customer.ID_ALLOCATION_SIZE);
+        try (Statement statement = con.createStatement()) {
+            return statement.executeLargeUpdate(sql);
+        }
+    }
+
+    private static long copyCsv(CopyManager copyManager, BufferedInputStream inputStream) throws SQLException, IOException {
+        List<String> columns = readCsvHeader(inputStream);
+        var sql = "COPY customer_import (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        return copyManager.copyIn(sql, inputStream, COPY_BUFFER_SIZE);
+    }
+
+    private static List<String> readCsvHeader(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int b;
+        while ((b = inputStream.read()) != -1 && b != '\n') {
+            header.write(b);
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String column : header.toString(StandardCharsets.UTF_8).strip().split(",")) {
+            String name = column.strip().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(name) || columns.contains(name)) {
+                throw new RequestValidationException("invalid csv header column " + column);
+            }
+            columns.add(name);
+        }
+        if (!columns.containsAll(List.of("name", "email", "age"))) {
+            throw new RequestValidationException("csv header must contain name, email and age");
+        }
+        return columns;
+    }
+
+    private long copyNdjson(CopyManager copyManager, InputStream inputStream) throws SQLException, IOException {
+        CopyIn copyIn = copyManager.copyIn("COPY customer_import (name, email, age) FROM STDIN WITH (FORMAT csv)");
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                appendNdjsonRow(rows, line);
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeRows(copyIn, rows);
+                }
+            }
+            writeRows(copyIn, rows);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void appendNdjsonRow(StringBuilder rows, String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            rows.append(CsvUtils.escape(text(node, "name"))).append(',')
+                    .append(CsvUtils.escape(text(node, "email"))).append(',')
+                    .append(CsvUtils.escape(text(node, "age"))).append('\n');
+        } catch (JsonProcessingException e) {
+            // keep the row so it is counted, it is rejected by the merge because every column is null
+            rows.append(",,\n");
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() || value.isContainerNode() ? null : value.asText();
+    }
+
+    private static void writeRows(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
@@ -1,18 +1,38 @@
 package com.connor.customer.dao;
 
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
 import org.springframework.stereotype.Repository;
 
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerDao {
-    List<Customer> selectAllCustomers();
-    Optional<Customer> selectCustomerById(Long id);
+    List<CustomerView> selectAllCustomers();
+    List<CustomerView> selectCustomersAfterId(Long afterId, int limit);
+    Stream<CustomerView> streamAllCustomers();
+    List<CustomerView> searchCustomers(CustomerSearchCriteria criteria);
+    // JSON for a CustomerPage of up to pageSize customers after afterId; returns the page fingerprint
+    String writeCustomerPage(Long afterId, int pageSize, OutputStream outputStream);
+    // JSON for searchCustomers(criteria)
+    void writeCustomers(CustomerSearchCriteria criteria, OutputStream outputStream);
+    Optional<CustomerView> selectCustomerById(Long id);
+    Optional<Long> selectCustomerVersion(Long id);
+    List<CustomerAgeCount> selectAgeCounts();
+    String selectCustomerPageFingerprint(Long afterId, int limit);
     void insertCustomer(Customer customer);
+    // skips customers whose email is already taken and returns those emails; skipped customers keep no id
+    Set<String> insertCustomers(List<Customer> customers, int batchSize);
+    Set<String> selectExistingEmails(Collection<String> emails);
     boolean existCustomerWithEmail(String email);
     boolean existCustomerWithId(Long id);
     void deleteCustomer(Long id);
-    void updateCustomer(Customer customer);
+    CustomerView updateCustomer(Customer customer);
 }
@@ -0,0 +1,52 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.PreconditionFailedException;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Shared by the JDBC and JPA DAOs so both report the same rows and the same update failures.
+final class CustomerDaoSupport {
+
+    private CustomerDaoSupport() {
+    }
+
+    // columns as selected by native customer queries: id, name, email, age, version
+    static CustomerView view(Object[] row) {
+        return new CustomerView(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                ((Number) row[3]).intValue(),
+                ((Number) row[4]).longValue());
+    }
+
+    // the customers an ON CONFLICT DO NOTHING insert did not return; each returned email accounts for one customer
+    static Set<String> skippedEmails(List<Customer> customers, Set<String> inserted) {
+        Set<String> skipped = new HashSet<>();
+        for (Customer customer : customers) {
+            if (!inserted.remove(customer.getEmail())) {
+                skipped.add(customer.getEmail());
+                customer.setId(null);
+            }
+        }
+        return skipped;
+    }
+
+    // why a conditional update matched no row, given the row's version as it is now
+    static RuntimeException updateFailure(Customer changes, Optional<Long> currentVersion) {
+        if (currentVersion.isEmpty()) {
+            return new ResourceNotFoundException("Customer could not be found");
+        }
+        if (changes.getVersion() != null && !changes.getVersion().equals(currentVersion.get())) {
+            return new PreconditionFailedException("Customer has been modified");
+        }
+        return new RequestValidationException("no changes found");
+    }
+}
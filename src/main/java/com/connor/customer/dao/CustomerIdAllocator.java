@@ -0,0 +1,117 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.model.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out customer ids with the same pooled scheme Hibernate uses for the entity:
+// every nextval on customer_id_seq returns the upper end of a block of ID_ALLOCATION_SIZE ids.
+// Every insert goes through here rather than the column default, which would burn a whole block per row.
+@Component
+public class CustomerIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    // Only guards the blocks below: callers may hold a pool connection and the event loop polls here,
+    // so nextval is never fetched with it held
+    private final ReentrantLock lock = new ReentrantLock();
+    // unused ids as {next, last}, oldest first
+    private final Deque<long[]> blocks = new ArrayDeque<>();
+
+    public CustomerIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> allocate(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (true) {
+            lock.lock();
+            try {
+                takeFromBlocks(ids, count);
+            } finally {
+                lock.unlock();
+            }
+            if (ids.size() == count) {
+                return ids;
+            }
+
+            int missing = (count - ids.size() + Customer.ID_ALLOCATION_SIZE - 1) / Customer.ID_ALLOCATION_SIZE;
+            var sql = """
+                    SELECT nextval('customer_id_seq')
+                    FROM generate_series(1, ?)
+                    """;
+            // concurrent writers may interleave, so every returned value is its own block;
+            // the very first value of the sequence is a block of one
+            List<long[]> fetched = new ArrayList<>();
+            for (Long hi : jdbcTemplate.queryForList(sql, Long.class, missing)) {
+                long[] block = block(hi);
+                while (ids.size() < count && block[0] <= block[1]) {
+                    ids.add(block[0]++);
+                }
+                if (block[0] <= block[1]) {
+                    fetched.add(block);
+                }
+            }
+            // leftovers are published for the next caller; the loop only repeats if a query came back short
+            lock.lock();
+            try {
+                blocks.addAll(fetched);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public long allocate() {
+        return allocate(1).get(0);
+    }
+
+    // For callers that must not block on JDBC (R2DBC): the next id of the current blocks, or null once they are
+    // used up, in which case they fetch a nextval themselves and hand it to startBlock
+    public Long poll() {
+        List<Long> ids = new ArrayList<>(1);
+        lock.lock();
+        try {
+            takeFromBlocks(ids, 1);
+        } finally {
+            lock.unlock();
+        }
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    // Takes the first id of the block ending at hi and publishes the rest
+    public long startBlock(long hi) {
+        long[] block = block(hi);
+        long id = block[0]++;
+        if (block[0] <= block[1]) {
+            lock.lock();
+            try {
+                blocks.add(block);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return id;
+    }
+
+    private static long[] block(long hi) {
+        return new long[] {Math.max(1, hi - Customer.ID_ALLOCATION_SIZE + 1), hi};
+    }
+
+    private void takeFromBlocks(List<Long> ids, int count) {
+        while (ids.size() < count && !blocks.isEmpty()) {
+            long[] block = blocks.peekFirst();
+            while (ids.size() < count && block[0] <= block[1]) {
+                ids.add(block[0]++);
+            }
+            if (block[0] > block[1]) {
+                blocks.removeFirst();
+            }
+        }
+    }
+}
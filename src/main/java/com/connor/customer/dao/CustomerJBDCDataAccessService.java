@@ -1,37 +1,106 @@
 package com.connor.customer.dao;
 
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
 import com.connor.customer.utils.CustomerRowMapper;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.ResourceNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository("jdbc")
+@ConditionalOnProperty(name = "customer.persistence.backend", havingValue = "jdbc", matchIfMissing = true)
 public class CustomerJBDCDataAccessService implements CustomerDao {
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
+    private final CustomerIdAllocator customerIdAllocator;
+    private final CustomerJsonStreamer customerJsonStreamer;
 
-    public CustomerJBDCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper) {
+    public CustomerJBDCDataAccessService(
+            JdbcTemplate jdbcTemplate,
+            CustomerRowMapper customerRowMapper,
+            CustomerIdAllocator customerIdAllocator,
+            CustomerJsonStreamer customerJsonStreamer) {
         this.jdbcTemplate = jdbcTemplate;
         this.customerRowMapper = customerRowMapper;
+        this.customerIdAllocator = customerIdAllocator;
+        this.customerJsonStreamer = customerJsonStreamer;
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
+    public List<CustomerView> selectAllCustomers() {
         var sql = """
-                SELECT id, name, email, age
+                SELECT id, name, email, age, version
                 FROM customer
                 """;
         return jdbcTemplate.query(sql, (customerRowMapper));
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Long id) {
+    public List<CustomerView> selectCustomersAfterId(Long afterId, int limit) {
         var sql = """
-                SELECT id, name, email, age
+                SELECT id, name, email, age, version
+                FROM customer
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, (customerRowMapper), afterId, limit);
+    }
+
+    @Override
+    public Stream<CustomerView> streamAllCustomers() {
+        var sql = """
+                SELECT id, name, email, age, version
+                FROM customer
+                ORDER BY id
+                """;
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement statement = con.prepareStatement(sql);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, customerRowMapper);
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearchCriteria criteria) {
+        CustomerSearchSql search = CustomerSearchSql.of(criteria);
+        return jdbcTemplate.query(search.sql(), customerRowMapper, search.parameters().toArray());
+    }
+
+    // written straight from the result set, without mapping rows to CustomerView
+    @Override
+    public String writeCustomerPage(Long afterId, int pageSize, OutputStream outputStream) {
+        return customerJsonStreamer.writeCustomerPage(afterId, pageSize, outputStream);
+    }
+
+    @Override
+    public void writeCustomers(CustomerSearchCriteria criteria, OutputStream outputStream) {
+        customerJsonStreamer.writeCustomers(criteria, outputStream);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Long id) {
+        var sql = """
+                SELECT id, name, email, age, version
                 FROM customer
                 WHERE id = ?
                 """;
@@ -41,38 +110,129 @@ public class CustomerJBDCDataAccessService implements CustomerDao {
     }
 
     @Override
-    public void insertCustomer(Customer customer) {
+    public Optional<Long> selectCustomerVersion(Long id) {
         var sql = """
-                INSERT INTO customer (name, email, age)
-                VALUES (?, ?, ?)
+                SELECT version
+                FROM customer
+                WHERE id = ?
                 """;
-        jdbcTemplate.update(sql, customer.getName(), customer.getEmail(), customer.getAge());
+        return jdbcTemplate.queryForList(sql, Long.class, id)
+                .stream()
+                .findFirst();
     }
 
     @Override
-    public boolean existCustomerWithEmail(String email) {
+    public List<CustomerAgeCount> selectAgeCounts() {
+        // maintained by triggers on customer, see V7__Customer_Age_Statistics.sql
         var sql = """
-                SELECT id, name, email, age
-                FROM customer
-                WHERE email = ?
+                SELECT age, customers
+                FROM customer_age_stats
+                WHERE customers > 0
+                ORDER BY age
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerAgeCount(rs.getInt("age"), rs.getLong("customers")));
+    }
+
+    @Override
+    public String selectCustomerPageFingerprint(Long afterId, int limit) {
+        // must stay in step with CustomerService.fingerprint
+        var sql = """
+                SELECT md5(COALESCE(string_agg(id || ':' || version, ',' ORDER BY id) FILTER (WHERE rn <= ?), '')
+                           || CASE WHEN count(*) > ? THEN ';more' ELSE '' END)
+                FROM (
+                    SELECT id, version, row_number() OVER (ORDER BY id) AS rn
+                    FROM customer
+                    WHERE id > ?
+                    ORDER BY id
+                    LIMIT ?
+                ) page
                 """;
-        return jdbcTemplate.query(sql, (customerRowMapper), email)
+        return jdbcTemplate.queryForObject(sql, String.class, limit, limit, afterId, limit + 1);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        var sql = """
+                INSERT INTO customer (id, name, email, age)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+                RETURNING id
+                """;
+        Long id = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("id"),
+                        customerIdAllocator.allocate(), customer.getName(), customer.getEmail(), customer.getAge())
                 .stream()
                 .findFirst()
-                .isPresent();
+                .orElseThrow(() -> new DuplicateResourceException("Customer with email already exist"));
+        customer.setId(id);
     }
 
+    // one statement per batch: a batched INSERT cannot return which rows ON CONFLICT skipped
     @Override
-    public boolean existCustomerWithId(Long id) {
+    public Set<String> insertCustomers(List<Customer> customers, int batchSize) {
+        List<Long> ids = customerIdAllocator.allocate(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            customers.get(i).setId(ids.get(i));
+        }
+
         var sql = """
-                SELECT id, name, email, age
+                INSERT INTO customer (id, name, email, age)
+                SELECT * FROM unnest(?, ?, ?, ?)
+                ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+                RETURNING email
+                """;
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < customers.size(); from += batchSize) {
+            List<Customer> batch = customers.subList(from, Math.min(from + batchSize, customers.size()));
+            jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(sql);
+                statement.setArray(1, con.createArrayOf("bigint", batch.stream().map(Customer::getId).toArray()));
+                statement.setArray(2, con.createArrayOf("text", batch.stream().map(Customer::getName).toArray()));
+                statement.setArray(3, con.createArrayOf("text", batch.stream().map(Customer::getEmail).toArray()));
+                statement.setArray(4, con.createArrayOf("integer", batch.stream().map(Customer::getAge).toArray()));
+                return statement;
+            }, (RowCallbackHandler) rs -> inserted.add(rs.getString(1)));
+        }
+        return CustomerDaoSupport.skippedEmails(customers, inserted);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        var sql = """
+                SELECT email
                 FROM customer
-                WHERE id = ?
+                WHERE email = ANY(?)
                 """;
-        return jdbcTemplate.query(sql, (customerRowMapper), id)
-                .stream()
-                .findFirst()
-                .isPresent();
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql);
+            statement.setArray(1, con.createArrayOf("text", emails.toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> existing.add(rs.getString(1)));
+        return existing;
+    }
+
+    @Override
+    public boolean existCustomerWithEmail(String email) {
+        var sql = """
+                SELECT EXISTS (
+                    SELECT 1
+                    FROM customer
+                    WHERE email = ?
+                )
+                """;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, email));
+    }
+
+    @Override
+    public boolean existCustomerWithId(Long id) {
+        var sql = """
+                SELECT EXISTS (
+                    SELECT 1
+                    FROM customer
+                    WHERE id = ?
+                )
+                """;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
     }
 
     @Override
@@ -82,23 +242,47 @@ public class CustomerJBDCDataAccessService implements CustomerDao {
                 FROM customer
                 WHERE id = ?;
                 """;
-        jdbcTemplate.update(sql, id);
+        if (jdbcTemplate.update(sql, id) == 0) {
+            throw new ResourceNotFoundException("Customer could not be found");
+        }
     }
 
     @Override
-    public void updateCustomer(Customer customer) {
+    public CustomerView updateCustomer(Customer customer) {
+        // null fields keep their current value, rows that would not change are left untouched;
+        // a non-null version makes the update conditional on the row still being at that version
         var sql = """
-                UPDATE public.customer
-                SET name  = ?,
-                    email = ?,
-                    age   = ?
-                WHERE id = ?;
+                UPDATE customer
+                SET name    = COALESCE(?, name),
+                    email   = COALESCE(?, email),
+                    age     = COALESCE(?, age),
+                    version = version + 1
+                WHERE id = ?
+                  AND (CAST(? AS BIGINT) IS NULL OR version = ?)
+                  AND (name, email, age) IS DISTINCT FROM (COALESCE(?, name), COALESCE(?, email), COALESCE(?, age))
+                RETURNING id, name, email, age, version
                 """;
-        jdbcTemplate.update(
-                sql,
-                customer.getName(),
-                customer.getEmail(),
-                customer.getAge(),
-                customer.getId());
+        List<CustomerView> updated;
+        try {
+            updated = jdbcTemplate.query(sql, ps -> {
+                ps.setString(1, customer.getName());
+                ps.setString(2, customer.getEmail());
+                ps.setObject(3, customer.getAge(), Types.INTEGER);
+                ps.setObject(4, customer.getId(), Types.BIGINT);
+                ps.setObject(5, customer.getVersion(), Types.BIGINT);
+                ps.setObject(6, customer.getVersion(), Types.BIGINT);
+                ps.setString(7, customer.getName());
+                ps.setString(8, customer.getEmail());
+                ps.setObject(9, customer.getAge(), Types.INTEGER);
+            }, customerRowMapper);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("Email is already taken");
+        }
+
+        if (!updated.isEmpty()) {
+            return updated.get(0);
+        }
+        // only the failure path pays for a second round trip to tell the cases apart
+        throw CustomerDaoSupport.updateFailure(customer, selectCustomerVersion(customer.getId()));
     }
 }
@@ -1,33 +1,125 @@
 package com.connor.customer.dao;
 
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.ResourceNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository("jpa")
+@ConditionalOnProperty(name = "customer.persistence.backend", havingValue = "jpa")
 public class CustomerJPADataAccessService implements CustomerDao {
 
     private final CustomerRepository customerRepository;
+    private final CustomerIdAllocator customerIdAllocator;
+    private final CustomerJsonStreamer customerJsonStreamer;
 
-    public CustomerJPADataAccessService(CustomerRepository customerRepository) {
+    public CustomerJPADataAccessService(CustomerRepository customerRepository,
+                                        CustomerIdAllocator customerIdAllocator,
+                                        CustomerJsonStreamer customerJsonStreamer) {
         this.customerRepository = customerRepository;
+        this.customerIdAllocator = customerIdAllocator;
+        this.customerJsonStreamer = customerJsonStreamer;
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
-        return customerRepository.findAll();
+    public List<CustomerView> selectAllCustomers() {
+        return customerRepository.findAllViews();
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Long id) {
-        return customerRepository.findById(id);
+    public List<CustomerView> selectCustomersAfterId(Long afterId, int limit) {
+        return customerRepository.findViewsByIdGreaterThan(afterId, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    public Stream<CustomerView> streamAllCustomers() {
+        return customerRepository.streamAllViews();
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearchCriteria criteria) {
+        return customerRepository.searchCustomers(criteria);
+    }
+
+    // queried through the repository like the other reads; only the JSON writing is shared with JDBC
+    @Override
+    public String writeCustomerPage(Long afterId, int pageSize, OutputStream outputStream) {
+        return customerJsonStreamer.writeCustomerPage(selectCustomersAfterId(afterId, pageSize + 1), pageSize, outputStream);
+    }
+
+    @Override
+    public void writeCustomers(CustomerSearchCriteria criteria, OutputStream outputStream) {
+        customerJsonStreamer.writeCustomers(searchCustomers(criteria), outputStream);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Long id) {
+        return customerRepository.findViewById(id);
+    }
+
+    @Override
+    public Optional<Long> selectCustomerVersion(Long id) {
+        return customerRepository.findVersionById(id);
+    }
+
+    @Override
+    public List<CustomerAgeCount> selectAgeCounts() {
+        return customerRepository.findAgeCounts()
+                .stream()
+                .map(row -> new CustomerAgeCount(((Number) row[0]).intValue(), ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    @Override
+    public String selectCustomerPageFingerprint(Long afterId, int limit) {
+        return customerRepository.findPageFingerprint(afterId, limit);
     }
 
     @Override
     public void insertCustomer(Customer customer) {
-        customerRepository.save(customer);
+        Long id = customerRepository.insertCustomerIfEmailAbsent(
+                        customerIdAllocator.allocate(), customer.getName(), customer.getEmail(), customer.getAge())
+                .orElseThrow(() -> new DuplicateResourceException("Customer with email already exist"));
+        customer.setId(id);
+    }
+
+    // native like insertCustomer, so a taken email skips its row instead of failing the whole batch
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers, int batchSize) {
+        List<Long> ids = customerIdAllocator.allocate(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            customers.get(i).setId(ids.get(i));
+        }
+
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < customers.size(); from += batchSize) {
+            List<Customer> batch = customers.subList(from, Math.min(from + batchSize, customers.size()));
+            inserted.addAll(customerRepository.insertCustomersIfEmailAbsent(
+                    batch.stream().map(Customer::getId).toArray(Long[]::new),
+                    batch.stream().map(Customer::getName).toArray(String[]::new),
+                    batch.stream().map(Customer::getEmail).toArray(String[]::new),
+                    batch.stream().map(Customer::getAge).toArray(Integer[]::new)));
+        }
+        return CustomerDaoSupport.skippedEmails(customers, inserted);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return customerRepository.findEmailsByEmailIn(emails);
     }
 
     @Override
@@ -42,11 +134,24 @@ public class CustomerJPADataAccessService implements CustomerDao {
 
     @Override
     public void deleteCustomer(Long id) {
-        customerRepository.deleteById(id);
+        if (customerRepository.deleteCustomerById(id) == 0) {
+            throw new ResourceNotFoundException("Customer could not be found");
+        }
     }
 
     @Override
-    public void updateCustomer(Customer customer) {
-        customerRepository.save(customer);
+    public CustomerView updateCustomer(Customer customer) {
+        List<Object[]> updated;
+        try {
+            updated = customerRepository.updateCustomerIfChanged(
+                    customer.getId(), customer.getName(), customer.getEmail(), customer.getAge(), customer.getVersion());
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("Email is already taken");
+        }
+
+        if (!updated.isEmpty()) {
+            return CustomerDaoSupport.view(updated.get(0));
+        }
+        throw CustomerDaoSupport.updateFailure(customer, customerRepository.findVersionById(customer.getId()));
     }
 }
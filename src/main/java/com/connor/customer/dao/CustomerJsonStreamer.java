@@ -0,0 +1,176 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Writes list responses as JSON tokens straight from the ResultSet, without mapping rows to CustomerView
+// first. The output is byte-for-byte what Jackson writes for CustomerPage and List<CustomerView>: the
+// record components in declaration order, with version left out. Columns are read by index, so
+// every query here selects id, name, email, age, version in that order.
+// Only reached through CustomerDao, so the calls are metered like any other DAO call. The JDBC backend
+// has its SQL run here; the JPA backend queries through its repository and hands over the mapped views.
+@Repository
+public class CustomerJsonStreamer {
+
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int EMAIL = 3;
+    private static final int AGE = 4;
+    private static final int VERSION = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CustomerJsonStreamer(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // Returns the page fingerprint, which must stay in step with CustomerService.fingerprint
+    public String writeCustomerPage(Long afterId, int pageSize, OutputStream outputStream) {
+        var sql = """
+                SELECT id, name, email, age, version
+                FROM customer
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, (ResultSetExtractor<String>) rs -> {
+            try (JsonGenerator generator = createGenerator(outputStream)) {
+                return writePage(rs, pageSize, generator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, afterId, pageSize + 1);
+    }
+
+    public void writeCustomers(CustomerSearchCriteria criteria, OutputStream outputStream) {
+        CustomerSearchSql search = CustomerSearchSql.of(criteria);
+        jdbcTemplate.query(search.sql(), (ResultSetExtractor<Void>) rs -> {
+            try (JsonGenerator generator = createGenerator(outputStream)) {
+                generator.writeStartArray();
+                while (rs.next()) {
+                    writeCustomer(rs, generator);
+                }
+                generator.writeEndArray();
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, search.parameters().toArray());
+    }
+
+    // customers are what the query above selects, up to pageSize + 1 rows in id order
+    public String writeCustomerPage(List<CustomerView> customers, int pageSize, OutputStream outputStream) {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            return writePage(customers, pageSize, generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeCustomers(List<CustomerView> customers, OutputStream outputStream) {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (CustomerView customer : customers) {
+                writeCustomer(customer.id(), customer.name(), customer.email(), customer.age(), generator);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the query fetched one row past the page to find out whether there is a next one
+    public static String writePage(ResultSet rs, int pageSize, JsonGenerator generator) throws SQLException, IOException {
+        StringBuilder fingerprint = new StringBuilder(pageSize * 12);
+        long lastId = 0;
+        int rows = 0;
+        boolean more = false;
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("customers");
+        while (rs.next()) {
+            if (rows == pageSize) {
+                more = true;
+                break;
+            }
+            lastId = writeCustomer(rs, generator);
+            if (rows++ > 0) {
+                fingerprint.append(',');
+            }
+            fingerprint.append(lastId).append(':').append(rs.getLong(VERSION));
+        }
+        return endPage(generator, more, lastId, fingerprint);
+    }
+
+    static String writePage(List<CustomerView> customers, int pageSize, JsonGenerator generator) throws IOException {
+        StringBuilder fingerprint = new StringBuilder(pageSize * 12);
+        int rows = Math.min(customers.size(), pageSize);
+        long lastId = 0;
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("customers");
+        for (int i = 0; i < rows; i++) {
+            CustomerView customer = customers.get(i);
+            lastId = writeCustomer(customer.id(), customer.name(), customer.email(), customer.age(), generator);
+            if (i > 0) {
+                fingerprint.append(',');
+            }
+            fingerprint.append(lastId).append(':').append(customer.version());
+        }
+        return endPage(generator, customers.size() > pageSize, lastId, fingerprint);
+    }
+
+    private static String endPage(JsonGenerator generator, boolean more, long lastId, StringBuilder fingerprint)
+            throws IOException {
+        generator.writeEndArray();
+        generator.writeFieldName("nextCursor");
+        if (more) {
+            generator.writeNumber(lastId);
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+
+        if (more) {
+            fingerprint.append(";more");
+        }
+        return DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long writeCustomer(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        return writeCustomer(rs.getLong(ID), rs.getString(NAME), rs.getString(EMAIL), rs.getInt(AGE), generator);
+    }
+
+    private static long writeCustomer(long id, String name, String email, int age, JsonGenerator generator)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", id);
+        generator.writeStringField("name", name);
+        generator.writeStringField("email", email);
+        generator.writeNumberField("age", age);
+        generator.writeEndObject();
+        return id;
+    }
+
+    // picks up the ObjectMapper's output settings (indentation and so on); the caller owns the stream
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return objectMapper.createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+}
@@ -0,0 +1,160 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository("r2dbc")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CustomerR2DBCDataAccessService implements ReactiveCustomerDao {
+
+    private final DatabaseClient databaseClient;
+    private final CustomerIdAllocator customerIdAllocator;
+
+    public CustomerR2DBCDataAccessService(DatabaseClient databaseClient, CustomerIdAllocator customerIdAllocator) {
+        this.databaseClient = databaseClient;
+        this.customerIdAllocator = customerIdAllocator;
+    }
+
+    @Override
+    public Flux<CustomerView> selectCustomersAfterId(Long afterId, int limit) {
+        var sql = """
+                SELECT id, name, email, age, version
+                FROM customer
+                WHERE id > :afterId
+                ORDER BY id
+                LIMIT :limit
+                """;
+        return databaseClient.sql(sql)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .all();
+    }
+
+    @Override
+    public Mono<CustomerView> selectCustomerById(Long id) {
+        var sql = """
+                SELECT id, name, email, age, version
+                FROM customer
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> insertCustomer(Customer customer) {
+        var sql = """
+                INSERT INTO customer (id, name, email, age)
+                VALUES (:id, :name, :email, :age)
+                ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+                RETURNING id
+                """;
+        return nextId()
+                .flatMap(id -> bindChanges(databaseClient.sql(sql), customer)
+                        .bind("id", id)
+                        .map(row -> row.get("id", Long.class))
+                        .one())
+                .switchIfEmpty(Mono.error(() -> new DuplicateResourceException("Customer with email already exist")))
+                .map(id -> {
+                    customer.setId(id);
+                    return customer;
+                });
+    }
+
+    @Override
+    public Mono<Boolean> existCustomerWithId(Long id) {
+        var sql = """
+                SELECT EXISTS (
+                    SELECT 1
+                    FROM customer
+                    WHERE id = :id
+                ) AS found
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(row -> row.get("found", Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Void> deleteCustomer(Long id) {
+        var sql = """
+                DELETE
+                FROM customer
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(rows -> rows == 0
+                        ? Mono.error(new ResourceNotFoundException("Customer could not be found"))
+                        : Mono.empty());
+    }
+
+    @Override
+    public Mono<CustomerView> updateCustomer(Customer customer) {
+        var sql = """
+                UPDATE customer
+                SET name    = COALESCE(:name, name),
+                    email   = COALESCE(:email, email),
+                    age     = COALESCE(:age, age),
+                    version = version + 1
+                WHERE id = :id
+                  AND (name, email, age) IS DISTINCT FROM (COALESCE(:name, name), COALESCE(:email, email), COALESCE(:age, age))
+                RETURNING id, name, email, age, version
+                """;
+        return bindChanges(databaseClient.sql(sql), customer)
+                .bind("id", customer.getId())
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one()
+                .onErrorMap(DataIntegrityViolationException.class, e -> new DuplicateResourceException("Email is already taken"))
+                .switchIfEmpty(Mono.defer(() -> existCustomerWithId(customer.getId())
+                        .flatMap(exists -> Mono.error(exists
+                                ? new RequestValidationException("no changes found")
+                                : new ResourceNotFoundException("Customer could not be found")))));
+    }
+
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            Long id = customerIdAllocator.poll();
+            if (id != null) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql("SELECT nextval('customer_id_seq') AS hi")
+                    .map(row -> row.get("hi", Long.class))
+                    .one()
+                    .map(customerIdAllocator::startBlock);
+        });
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindChanges(DatabaseClient.GenericExecuteSpec spec, Customer customer) {
+        spec = customer.getName() == null ? spec.bindNull("name", String.class) : spec.bind("name", customer.getName());
+        spec = customer.getEmail() == null ? spec.bindNull("email", String.class) : spec.bind("email", customer.getEmail());
+        return customer.getAge() == null ? spec.bindNull("age", Integer.class) : spec.bind("age", customer.getAge());
+    }
+
+    private static CustomerView mapRow(Row row, RowMetadata metadata) {
+        return new CustomerView(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("age", Integer.class),
+                row.get("version", Long.class)
+        );
+    }
+}
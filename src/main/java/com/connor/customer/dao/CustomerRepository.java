@@ -1,11 +1,97 @@
 package com.connor.customer.dao;
 
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerSearchRepository {
+    String VIEW = "new com.connor.customer.payload.CustomerView(c.id, c.name, c.email, c.age, c.version)";
+
+    // Reads construct CustomerView directly: no entities are managed, so there are no snapshots to
+    // keep for dirty checking and nothing to flush
+    @Query("SELECT " + VIEW + " FROM Customer c")
+    List<CustomerView> findAllViews();
+    @Query("SELECT " + VIEW + " FROM Customer c WHERE c.id > :id ORDER BY c.id")
+    List<CustomerView> findViewsByIdGreaterThan(Long id, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT " + VIEW + " FROM Customer c ORDER BY c.id")
+    Stream<CustomerView> streamAllViews();
+    @Query("SELECT " + VIEW + " FROM Customer c WHERE c.id = :id")
+    Optional<CustomerView> findViewById(Long id);
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    Set<String> findEmailsByEmailIn(Collection<String> emails);
     boolean existsCustomerByEmail(String email);
     boolean existsCustomerById(Long id);
+    @Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+    Optional<Long> findVersionById(Long id);
+    // maintained by triggers on customer, see V7__Customer_Age_Statistics.sql
+    @Query(nativeQuery = true, value = """
+            SELECT age, customers
+            FROM customer_age_stats
+            WHERE customers > 0
+            ORDER BY age
+            """)
+    List<Object[]> findAgeCounts();
+    // must stay in step with CustomerService.fingerprint
+    @Query(nativeQuery = true, value = """
+            SELECT md5(COALESCE(string_agg(id || ':' || version, ',' ORDER BY id) FILTER (WHERE rn <= :limit), '')
+                       || CASE WHEN count(*) > :limit THEN ';more' ELSE '' END)
+            FROM (
+                SELECT id, version, row_number() OVER (ORDER BY id) AS rn
+                FROM customer
+                WHERE id > :afterId
+                ORDER BY id
+                LIMIT :limit + 1
+            ) page
+            """)
+    String findPageFingerprint(Long afterId, int limit);
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            INSERT INTO customer (id, name, email, age)
+            VALUES (:id, :name, :email, :age)
+            ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+            RETURNING id
+            """)
+    Optional<Long> insertCustomerIfEmailAbsent(Long id, String name, String email, Integer age);
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            INSERT INTO customer (id, name, email, age)
+            SELECT * FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS TEXT[]), CAST(:emails AS TEXT[]), CAST(:ages AS INTEGER[]))
+            ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+            RETURNING email
+            """)
+    List<String> insertCustomersIfEmailAbsent(Long[] ids, String[] names, String[] emails, Integer[] ages);
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id = :id")
+    int deleteCustomerById(Long id);
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            UPDATE customer
+            SET name    = COALESCE(CAST(:name AS TEXT), name),
+                email   = COALESCE(CAST(:email AS TEXT), email),
+                age     = COALESCE(CAST(:age AS INTEGER), age),
+                version = version + 1
+            WHERE id = :id
+              AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT))
+              AND (name, email, age) IS DISTINCT FROM
+                  (COALESCE(CAST(:name AS TEXT), name), COALESCE(CAST(:email AS TEXT), email), COALESCE(CAST(:age AS INTEGER), age))
+            RETURNING id, name, email, age, version
+            """)
+    List<Object[]> updateCustomerIfChanged(Long id, String name, String email, Integer age, Long version);
 }
@@ -0,0 +1,12 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
+
+import java.util.List;
+
+// Fragment for CustomerRepository: the search predicates are built per request, which a
+// derived or @Query method cannot express
+public interface CustomerSearchRepository {
+    List<CustomerView> searchCustomers(CustomerSearchCriteria criteria);
+}
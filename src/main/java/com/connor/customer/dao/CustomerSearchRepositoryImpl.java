@@ -0,0 +1,30 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.List;
+
+class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // plain rows rather than entities, so nothing is added to the persistence context
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CustomerView> searchCustomers(CustomerSearchCriteria criteria) {
+        CustomerSearchSql search = CustomerSearchSql.of(criteria);
+        Query query = entityManager.createNativeQuery(search.sql());
+        for (int i = 0; i < search.parameters().size(); i++) {
+            query.setParameter(i + 1, search.parameters().get(i));
+        }
+        return ((List<Object[]>) query.getResultList())
+                .stream()
+                .map(CustomerDaoSupport::view)
+                .toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.payload.CustomerSearchCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+// Search statement shared by the JDBC and JPA implementations.
+// Only the filters that were asked for are emitted, so each predicate lines up with its index
+// (see V6__Add_Customer_Search_Indexes.sql) instead of hiding behind "? IS NULL OR ..." guards
+// that the planner cannot push into an index scan.
+record CustomerSearchSql(String sql, List<Object> parameters) {
+
+    static CustomerSearchSql of(CustomerSearchCriteria criteria) {
+        List<Object> parameters = new ArrayList<>();
+        StringJoiner where = new StringJoiner(" AND ", "WHERE ", "\n").setEmptyValue("");
+
+        if (criteria.name() != null) {
+            where.add("(name ILIKE ? OR ? <% name)");
+            parameters.add("%" + escapeLike(criteria.name()) + "%");
+            parameters.add(criteria.name());
+        }
+        if (criteria.emailPrefix() != null) {
+            where.add("lower(email) LIKE ?");
+            parameters.add(escapeLike(criteria.emailPrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (criteria.minAge() != null) {
+            where.add("age >= ?");
+            parameters.add(criteria.minAge());
+        }
+        if (criteria.maxAge() != null) {
+            where.add("age <= ?");
+            parameters.add(criteria.maxAge());
+        }
+
+        String orderBy = switch (criteria.sort()) {
+            case ID -> "id";
+            case NAME -> "name, id";
+            case AGE -> "age, id";
+            case RELEVANCE -> {
+                parameters.add(criteria.name());
+                yield "word_similarity(?, name) DESC, id";
+            }
+        };
+        parameters.add(criteria.limit());
+
+        var sql = """
+                SELECT id, name, email, age, version
+                FROM customer
+                """ + where + """
+                ORDER BY %s
+                LIMIT ?
+                """.formatted(orderBy);
+        return new CustomerSearchSql(sql, List.copyOf(parameters));
+    }
+
+    // backslash is the default LIKE escape character in Postgres
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,210 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Records latency and errors for every call on the wrapped CustomerDao.
+// Timers are resolved once per method up front so the hot path never looks up meters by tag.
+public class MeteredCustomerDao implements CustomerDao {
+
+    static final String CALLS = "customer.dao.calls";
+    static final String ERRORS = "customer.dao.errors";
+    static final String ROWS = "customer.dao.rows";
+
+    private final CustomerDao delegate;
+    private final MeterRegistry registry;
+    private final String implementation;
+
+    private final Timer selectAllCustomers;
+    private final Timer selectCustomersAfterId;
+    private final Timer streamAllCustomers;
+    private final Timer searchCustomers;
+    private final Timer writeCustomerPage;
+    private final Timer writeCustomers;
+    private final Timer selectCustomerById;
+    private final Timer selectCustomerVersion;
+    private final Timer selectAgeCounts;
+    private final Timer selectCustomerPageFingerprint;
+    private final Timer insertCustomer;
+    private final Timer insertCustomers;
+    private final Timer selectExistingEmails;
+    private final Timer existCustomerWithEmail;
+    private final Timer existCustomerWithId;
+    private final Timer deleteCustomer;
+    private final Timer updateCustomer;
+    private final DistributionSummary selectAllCustomersRows;
+
+    public MeteredCustomerDao(CustomerDao delegate, MeterRegistry registry, String implementation) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.implementation = implementation;
+        this.selectAllCustomers = timer("selectAllCustomers");
+        this.selectCustomersAfterId = timer("selectCustomersAfterId");
+        this.streamAllCustomers = timer("streamAllCustomers");
+        this.searchCustomers = timer("searchCustomers");
+        this.writeCustomerPage = timer("writeCustomerPage");
+        this.writeCustomers = timer("writeCustomers");
+        this.selectCustomerById = timer("selectCustomerById");
+        this.selectCustomerVersion = timer("selectCustomerVersion");
+        this.selectAgeCounts = timer("selectAgeCounts");
+        this.selectCustomerPageFingerprint = timer("selectCustomerPageFingerprint");
+        this.insertCustomer = timer("insertCustomer");
+        this.insertCustomers = timer("insertCustomers");
+        this.selectExistingEmails = timer("selectExistingEmails");
+        this.existCustomerWithEmail = timer("existCustomerWithEmail");
+        this.existCustomerWithId = timer("existCustomerWithId");
+        this.deleteCustomer = timer("deleteCustomer");
+        this.updateCustomer = timer("updateCustomer");
+        this.selectAllCustomersRows = DistributionSummary.builder(ROWS)
+                .description("Rows returned by a CustomerDao query")
+                .tag("method", "selectAllCustomers")
+                .tag("implementation", implementation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public CustomerDao getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomers() {
+        List<CustomerView> customers = record(selectAllCustomers, "selectAllCustomers", delegate::selectAllCustomers);
+        selectAllCustomersRows.record(customers.size());
+        return customers;
+    }
+
+    @Override
+    public List<CustomerView> selectCustomersAfterId(Long afterId, int limit) {
+        return record(selectCustomersAfterId, "selectCustomersAfterId", () -> delegate.selectCustomersAfterId(afterId, limit));
+    }
+
+    // Only covers opening the cursor; rows are pulled by the caller after this returns.
+    @Override
+    public Stream<CustomerView> streamAllCustomers() {
+        return record(streamAllCustomers, "streamAllCustomers", delegate::streamAllCustomers);
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearchCriteria criteria) {
+        return record(searchCustomers, "searchCustomers", () -> delegate.searchCustomers(criteria));
+    }
+
+    // Includes writing the JSON, which happens while the rows are read.
+    @Override
+    public String writeCustomerPage(Long afterId, int pageSize, OutputStream outputStream) {
+        return record(writeCustomerPage, "writeCustomerPage", () -> delegate.writeCustomerPage(afterId, pageSize, outputStream));
+    }
+
+    @Override
+    public void writeCustomers(CustomerSearchCriteria criteria, OutputStream outputStream) {
+        record(writeCustomers, "writeCustomers", () -> {
+            delegate.writeCustomers(criteria, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerById(Long id) {
+        return record(selectCustomerById, "selectCustomerById", () -> delegate.selectCustomerById(id));
+    }
+
+    @Override
+    public Optional<Long> selectCustomerVersion(Long id) {
+        return record(selectCustomerVersion, "selectCustomerVersion", () -> delegate.selectCustomerVersion(id));
+    }
+
+    @Override
+    public List<CustomerAgeCount> selectAgeCounts() {
+        return record(selectAgeCounts, "selectAgeCounts", delegate::selectAgeCounts);
+    }
+
+    @Override
+    public String selectCustomerPageFingerprint(Long afterId, int limit) {
+        return record(selectCustomerPageFingerprint, "selectCustomerPageFingerprint",
+                () -> delegate.selectCustomerPageFingerprint(afterId, limit));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        record(insertCustomer, "insertCustomer", () -> {
+            delegate.insertCustomer(customer);
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers, int batchSize) {
+        return record(insertCustomers, "insertCustomers", () -> delegate.insertCustomers(customers, batchSize));
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return record(selectExistingEmails, "selectExistingEmails", () -> delegate.selectExistingEmails(emails));
+    }
+
+    @Override
+    public boolean existCustomerWithEmail(String email) {
+        return record(existCustomerWithEmail, "existCustomerWithEmail", () -> delegate.existCustomerWithEmail(email));
+    }
+
+    @Override
+    public boolean existCustomerWithId(Long id) {
+        return record(existCustomerWithId, "existCustomerWithId", () -> delegate.existCustomerWithId(id));
+    }
+
+    @Override
+    public void deleteCustomer(Long id) {
+        record(deleteCustomer, "deleteCustomer", () -> {
+            delegate.deleteCustomer(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CustomerView updateCustomer(Customer customer) {
+        return record(updateCustomer, "updateCustomer", () -> delegate.updateCustomer(customer));
+    }
+
+    private <T> T record(Timer timer, String method, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            Counter.builder(ERRORS)
+                    .description("CustomerDao calls that threw")
+                    .tag("method", method)
+                    .tag("implementation", implementation)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String method) {
+        return Timer.builder(CALLS)
+                .description("Latency of CustomerDao calls")
+                .tag("method", method)
+                .tag("implementation", implementation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerDao {
+    Flux<CustomerView> selectCustomersAfterId(Long afterId, int limit);
+    Mono<CustomerView> selectCustomerById(Long id);
+    Mono<Customer> insertCustomer(Customer customer);
+    Mono<Boolean> existCustomerWithId(Long id);
+    Mono<Void> deleteCustomer(Long id);
+    Mono<CustomerView> updateCustomer(Customer customer);
+}
@@ -1,36 +1,192 @@
 package com.connor.customer.http;
 
-import com.connor.customer.model.Customer;
+import com.connor.customer.business.CustomerBulkRegistrationService;
+import com.connor.customer.business.CustomerExportService;
+import com.connor.customer.business.CustomerImportService;
+import com.connor.customer.business.CustomerRegistrationQueue;
+import com.connor.customer.payload.CustomerBulkRegistrationResponse;
+import com.connor.customer.payload.CustomerFileFormat;
+import com.connor.customer.payload.CustomerImportResult;
+import com.connor.customer.payload.CustomerPage;
 import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerRegistrationTicket;
+import com.connor.customer.payload.CustomerStatistics;
 import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.customer.payload.CustomerView;
 import com.connor.customer.business.CustomerService;
+import com.connor.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("api/v1/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomerController {
 
+    // formats list responses are still written in through the message converters
+    private static final List<MediaType> CONVERTED_MEDIA_TYPES = List.of(
+            MediaType.APPLICATION_CBOR,
+            new MediaType("application", "x-jackson-smile"),
+            CustomerProtobufHttpMessageConverter.PROTOBUF);
+
     private final CustomerService customerService;
+    private final CustomerExportService customerExportService;
+    private final CustomerBulkRegistrationService customerBulkRegistrationService;
+    private final CustomerImportService customerImportService;
+    private final ContentNegotiationManager contentNegotiationManager;
+    // only present when customer.registration-queue.enabled=true
+    private final CustomerRegistrationQueue customerRegistrationQueue;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(
+            CustomerService customerService,
+            CustomerExportService customerExportService,
+            CustomerBulkRegistrationService customerBulkRegistrationService,
+            CustomerImportService customerImportService,
+            ContentNegotiationManager contentNegotiationManager,
+            ObjectProvider<CustomerRegistrationQueue> customerRegistrationQueue) {
         this.customerService = customerService;
+        this.customerExportService = customerExportService;
+        this.customerBulkRegistrationService = customerBulkRegistrationService;
+        this.customerImportService = customerImportService;
+        this.contentNegotiationManager = contentNegotiationManager;
+        this.customerRegistrationQueue = customerRegistrationQueue.getIfAvailable();
     }
 
+    // JSON pages are written straight from the result set. They are buffered rather than streamed
+    // because the ETag, which covers the whole page, has to go out before the body
     @GetMapping
-    public List<Customer> getCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<CustomerPage> getCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        if (ifNoneMatch != null) {
+            String etag = CustomerETags.weak(customerService.getCustomerPageFingerprint(after, limit));
+            if (CustomerETags.matchesAny(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        if (prefersJson(contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request)))) {
+            FastByteArrayOutputStream body = new FastByteArrayOutputStream();
+            String fingerprint = customerService.writeCustomerPage(after, limit, body);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.ETAG, CustomerETags.weak(fingerprint));
+            response.setContentLength(body.size());
+            body.writeTo(response.getOutputStream());
+            // null tells Spring MVC the response has been handled
+            return null;
+        }
+        CustomerPage page = customerService.getCustomerPage(after, limit);
+        return ResponseEntity.ok().eTag(CustomerETags.weak(CustomerService.fingerprint(page))).body(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerView>> searchCustomers(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        if (prefersJson(contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request)))) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            customerService.writeCustomerSearch(name, email, minAge, maxAge, sort, limit, response.getOutputStream());
+            return null;
+        }
+        return ResponseEntity.ok(customerService.searchCustomers(name, email, minAge, maxAge, sort, limit));
+    }
+
+    @GetMapping("/statistics")
+    public CustomerStatistics getCustomerStatistics(@RequestParam(required = false) Integer bucketWidth) {
+        return customerService.getCustomerStatistics(bucketWidth);
+    }
+
+    @GetMapping("/export")
+    public void exportCustomers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        CustomerFileFormat fileFormat = CustomerFileFormat.fromValue(format);
+        response.setContentType(fileFormat.getMediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("customers." + fileFormat.getExtension())
+                .build()
+                .toString());
+        customerExportService.exportCustomers(fileFormat, response.getOutputStream());
     }
 
+    // With the registration queue enabled the customer is written in the background and the
+    // response points at a status resource instead
     @PostMapping
-    public void registerCustomer(@RequestBody CustomerRegistrationRequest request) {
-        customerService.addCustomer(request);
+    public ResponseEntity<CustomerRegistrationTicket> registerCustomer(@RequestBody CustomerRegistrationRequest request) {
+        if (customerRegistrationQueue == null) {
+            customerService.addCustomer(request);
+            return ResponseEntity.ok().build();
+        }
+        CustomerRegistrationTicket ticket = customerRegistrationQueue.submit(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/registrations/{id}")
+                        .buildAndExpand(ticket.id())
+                        .toUri())
+                .body(ticket);
+    }
+
+    @GetMapping("/registrations/{registrationId}")
+    public CustomerRegistrationTicket getRegistration(@PathVariable UUID registrationId) {
+        if (customerRegistrationQueue == null) {
+            throw new ResourceNotFoundException("Registration could not be found");
+        }
+        return customerRegistrationQueue.getTicket(registrationId);
+    }
+
+    @PostMapping("/bulk")
+    public CustomerBulkRegistrationResponse registerCustomers(@RequestBody List<CustomerRegistrationRequest> requests) {
+        return customerBulkRegistrationService.addCustomers(requests);
+    }
+
+    @PostMapping("/import")
+    public CustomerImportResult importCustomers(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) {
+        return customerImportService.importCustomers(CustomerFileFormat.fromValue(format), body);
     }
 
+    // A matching If-None-Match is answered from a version-only query without loading the row
     @GetMapping("/{customerId}")
-    public Customer getCustomer(@PathVariable Long customerId) {
-        return customerService.getCustomerById(customerId);
+    public ResponseEntity<CustomerView> getCustomer(
+            @PathVariable Long customerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = CustomerETags.of(customerService.getCustomerVersion(customerId));
+            if (CustomerETags.matchesAny(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        CustomerView customer = customerService.getCustomerById(customerId);
+        return ResponseEntity.ok().eTag(CustomerETags.of(customer.version())).body(customer);
     }
 
     @DeleteMapping("/{customerId}")
@@ -39,9 +195,27 @@ public class CustomerController {
     }
 
     @PutMapping("/{customerId}")
-    public void updateCustomer(
+    public ResponseEntity<Void> updateCustomer(
             @PathVariable Long customerId,
-            @RequestBody CustomerUpdateRequest requestBody) {
-        customerService.updateCustomer(customerId, requestBody);
+            @RequestBody CustomerUpdateRequest requestBody,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CustomerView updated = customerService.updateCustomer(customerId, requestBody, CustomerETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(CustomerETags.of(updated.version())).build();
+    }
+
+    // Accept is already sorted by quality and specificity. The JSON converter is registered first,
+    // so it also answers wildcards, as it would have through the converters.
+    static boolean prefersJson(List<MediaType> acceptable) {
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            for (MediaType converted : CONVERTED_MEDIA_TYPES) {
+                if (mediaType.isCompatibleWith(converted)) {
+                    return false;
+                }
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,59 @@
+package com.connor.customer.http;
+
+import com.connor.exception.PreconditionFailedException;
+
+// Single customers get the quoted row version as a strong ETag, which If-Match needs. List pages get the
+// page fingerprint as a weak one: Tomcat does not gzip a response that carries a strong ETag.
+final class CustomerETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private CustomerETags() {
+    }
+
+    static String of(Object value) {
+        return "\"" + value + "\"";
+    }
+
+    static String weak(Object value) {
+        return WEAK_PREFIX + of(value);
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (opaqueTag(tag).equals(opaqueTag(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
+    }
+
+    // If-Match uses strong comparison: "*" or a missing header mean no precondition,
+    // anything that cannot be a version of ours can never match
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("Customer has been modified");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Customer has been modified");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.connor.customer.http;
+
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerView;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Writes CustomerView, CustomerPage and List<CustomerView> (search results) in the wire format of
+// src/main/proto/customer.proto. Fields are encoded straight from the view records, so there is no
+// generated message to copy into. Lists are told apart by their generic type, which is why this is
+// a generic converter.
+public class CustomerProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public CustomerProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CustomerView.class.isAssignableFrom(clazz) || CustomerPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (supports(clazz) || isCustomerList(type)) && canWrite(mediaType);
+    }
+
+    // MVC asks this with the bare value class when collecting producible types; canWrite checks the element type
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading protobuf is not supported", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        return readInternal(Object.class, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        write(value, outputMessage.getBody());
+    }
+
+    private static boolean isCustomerList(Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        return List.class.isAssignableFrom(resolved.toClass())
+                && CustomerView.class.isAssignableFrom(resolved.asCollection().resolveGeneric());
+    }
+
+    public static void write(Object value, OutputStream outputStream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        if (value instanceof CustomerPage page) {
+            writePage(page, output);
+        } else if (value instanceof List<?> customers) {
+            writeCustomers(customers, output);
+        } else {
+            writeCustomer((CustomerView) value, output);
+        }
+        output.flush();
+    }
+
+    private static void writePage(CustomerPage page, CodedOutputStream output) throws IOException {
+        writeCustomers(page.customers(), output);
+        if (page.nextCursor() != null) {
+            output.writeInt64(2, page.nextCursor());
+        }
+    }
+
+    // field 1 of both CustomerPage and CustomerList
+    private static void writeCustomers(List<?> customers, CodedOutputStream output) throws IOException {
+        for (Object value : customers) {
+            CustomerView customer = (CustomerView) value;
+            output.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(customerSize(customer));
+            writeCustomer(customer, output);
+        }
+    }
+
+    private static void writeCustomer(CustomerView customer, CodedOutputStream output) throws IOException {
+        output.writeInt64(1, customer.id());
+        if (customer.name() != null) {
+            output.writeString(2, customer.name());
+        }
+        if (customer.email() != null) {
+            output.writeString(3, customer.email());
+        }
+        output.writeInt32(4, customer.age());
+    }
+
+    private static int customerSize(CustomerView customer) {
+        int size = CodedOutputStream.computeInt64Size(1, customer.id());
+        if (customer.name() != null) {
+            size += CodedOutputStream.computeStringSize(2, customer.name());
+        }
+        if (customer.email() != null) {
+            size += CodedOutputStream.computeStringSize(3, customer.email());
+        }
+        return size + CodedOutputStream.computeInt32Size(4, customer.age());
+    }
+}
@@ -0,0 +1,52 @@
+package com.connor.customer.http;
+
+import com.connor.customer.business.ReactiveCustomerService;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerView;
+import com.connor.customer.payload.CustomerUpdateRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("api/v1/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CustomerView> getCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return customerService.getCustomers(after, limit);
+    }
+
+    @PostMapping
+    public Mono<Void> registerCustomer(@RequestBody CustomerRegistrationRequest request) {
+        return customerService.addCustomer(request);
+    }
+
+    @GetMapping("/{customerId}")
+    public Mono<CustomerView> getCustomer(@PathVariable Long customerId) {
+        return customerService.getCustomerById(customerId);
+    }
+
+    @DeleteMapping("/{customerId}")
+    public Mono<Void> deleteCustomer(@PathVariable Long customerId) {
+        return customerService.deleteCustomerById(customerId);
+    }
+
+    @PutMapping("/{customerId}")
+    public Mono<Void> updateCustomer(
+            @PathVariable Long customerId,
+            @RequestBody CustomerUpdateRequest requestBody) {
+        return customerService.updateCustomer(customerId, requestBody);
+    }
+}
@@ -1,5 +1,6 @@
 package com.connor.customer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.util.Objects;
@@ -8,17 +9,20 @@ import java.util.Objects;
 @Table(name = "customer",
         uniqueConstraints = {
             @UniqueConstraint(
-                    name = "customer_email_unique",
+                    name = Customer.EMAIL_CONSTRAINT,
                     columnNames = "email"
             )
         })
 public class Customer {
 
+    public static final String EMAIL_CONSTRAINT = "customer_email_unique";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @SequenceGenerator(
             name = "customer_id_seq",
             sequenceName = "customer_id_seq",
-            allocationSize = 1
+            allocationSize = ID_ALLOCATION_SIZE
     )
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_id_seq")
     private Long id;
@@ -28,6 +32,11 @@ public class Customer {
     private String email;
     @Column(nullable = false)
     private Integer age;
+    // exposed to clients as the ETag, not in the body
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
 
     public Customer() {}
 
@@ -76,6 +85,14 @@ public class Customer {
         this.age = age;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,9 @@
+package com.connor.customer.payload;
+
+// fromAge and toAge are both inclusive
+public record CustomerAgeBucket(
+        int fromAge,
+        int toAge,
+        long customers
+) {
+}
@@ -0,0 +1,7 @@
+package com.connor.customer.payload;
+
+public record CustomerAgeCount(
+        int age,
+        long customers
+) {
+}
@@ -0,0 +1,33 @@
+package com.connor.customer.payload;
+
+import com.connor.exception.RequestValidationException;
+
+public enum CustomerFileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    CustomerFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static CustomerFileFormat fromValue(String value) {
+        for (CustomerFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new RequestValidationException("unsupported format " + value);
+    }
+}
@@ -0,0 +1,8 @@
+package com.connor.customer.payload;
+
+public record CustomerImportResult(
+        long rowsRead,
+        long rowsImported,
+        long rowsRejected
+) {
+}
@@ -0,0 +1,10 @@
+package com.connor.customer.payload;
+
+
+import java.util.List;
+
+public record CustomerPage(
+        List<CustomerView> customers,
+        Long nextCursor
+) {
+}
@@ -0,0 +1,8 @@
+package com.connor.customer.payload;
+
+public record CustomerRegistrationResult(
+        int index,
+        String email,
+        CustomerRegistrationStatus status
+) {
+}
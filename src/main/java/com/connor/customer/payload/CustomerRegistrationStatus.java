@@ -0,0 +1,10 @@
+package com.connor.customer.payload;
+
+public enum CustomerRegistrationStatus {
+    QUEUED,
+    CREATED,
+    INVALID,
+    DUPLICATE_IN_REQUEST,
+    EMAIL_TAKEN,
+    FAILED
+}
@@ -0,0 +1,12 @@
+package com.connor.customer.payload;
+
+import java.util.UUID;
+
+// customerId is set once the registration is CREATED
+public record CustomerRegistrationTicket(
+        UUID id,
+        String email,
+        CustomerRegistrationStatus status,
+        Long customerId
+) {
+}
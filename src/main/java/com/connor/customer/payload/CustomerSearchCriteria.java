@@ -0,0 +1,12 @@
+package com.connor.customer.payload;
+
+// Every filter is optional; the ones that are set are ANDed together
+public record CustomerSearchCriteria(
+        String name,
+        String emailPrefix,
+        Integer minAge,
+        Integer maxAge,
+        CustomerSearchSort sort,
+        int limit
+) {
+}
@@ -0,0 +1,29 @@
+package com.connor.customer.payload;
+
+import com.connor.exception.RequestValidationException;
+
+public enum CustomerSearchSort {
+    ID("id"),
+    NAME("name"),
+    AGE("age"),
+    RELEVANCE("relevance");
+
+    private final String value;
+
+    CustomerSearchSort(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static CustomerSearchSort fromValue(String value) {
+        for (CustomerSearchSort sort : values()) {
+            if (sort.value.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new RequestValidationException("unsupported sort " + value);
+    }
+}
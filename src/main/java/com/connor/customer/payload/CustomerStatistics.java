@@ -0,0 +1,13 @@
+package com.connor.customer.payload;
+
+import java.util.List;
+
+// age fields are null while there are no customers
+public record CustomerStatistics(
+        long totalCustomers,
+        Integer minAge,
+        Integer maxAge,
+        Double averageAge,
+        List<CustomerAgeBucket> ageHistogram
+) {
+}
@@ -0,0 +1,15 @@
+package com.connor.customer.payload;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// What reads return instead of the Customer entity: immutable, with primitive id and age, and never
+// attached to a persistence context. Serializes exactly as Customer does. version is the ETag and
+// stays out of the body.
+public record CustomerView(
+        long id,
+        String name,
+        String email,
+        int age,
+        @JsonIgnore long version
+) {
+}
@@ -1,6 +1,6 @@
 package com.connor.customer.utils;
 
-import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
@@ -8,15 +8,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 @Component
-public class CustomerRowMapper implements RowMapper<Customer> {
+public class CustomerRowMapper implements RowMapper<CustomerView> {
 
     @Override
-    public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Customer(
+    public CustomerView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new CustomerView(
                 rs.getLong("id"),
                 rs.getString("name"),
                 rs.getString("email"),
-                rs.getInt("age")
+                rs.getInt("age"),
+                rs.getLong("version")
         );
     }
 }
@@ -0,0 +1,10 @@
+CREATE FUNCTION notify_customer_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('customer_changed', OLD.id::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_changed
+    AFTER UPDATE OR DELETE ON customer
+    FOR EACH ROW EXECUTE FUNCTION notify_customer_changed();
@@ -0,0 +1,4 @@
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
+
+-- consume the start value so every later nextval is the upper end of a full block
+SELECT nextval('customer_id_seq');
@@ -0,0 +1,4 @@
+ALTER TABLE customer ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- lets ETag checks read (id, version) from the index without touching the heap
+CREATE INDEX customer_id_version_idx ON customer (id) INCLUDE (version);
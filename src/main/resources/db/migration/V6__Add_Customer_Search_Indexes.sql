@@ -0,0 +1,13 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- substring (ILIKE '%x%') and fuzzy word (<%) matches on name
+CREATE INDEX IF NOT EXISTS customer_name_trgm_idx ON customer USING gin (name gin_trgm_ops);
+
+-- name ordering for sort=name without scanning and sorting the whole table
+CREATE INDEX IF NOT EXISTS customer_name_id_idx ON customer (name, id);
+
+-- case-insensitive email prefix (LIKE 'x%'); text_pattern_ops so it works under any collation
+CREATE INDEX IF NOT EXISTS customer_email_lower_pattern_idx ON customer (lower(email) text_pattern_ops);
+
+-- age ranges, ordered by age then id
+CREATE INDEX IF NOT EXISTS customer_age_id_idx ON customer (age, id);
@@ -0,0 +1,83 @@
+-- one row per age; counts are kept in step with customer by the statement-level triggers below
+-- so statistics never have to scan customer. Spreading the counts over ages keeps concurrent
+-- writers from all queueing on a single summary row.
+CREATE TABLE customer_age_stats(
+    age INT PRIMARY KEY,
+    customers BIGINT NOT NULL
+);
+
+INSERT INTO customer_age_stats (age, customers)
+SELECT age, count(*)
+FROM customer
+GROUP BY age;
+
+-- transition tables fold a whole batch or COPY into one upsert per distinct age;
+-- ages are applied in order so concurrent statements lock stats rows in the same order
+CREATE FUNCTION customer_age_stats_apply(deltas customer_age_stats[]) RETURNS void AS $$
+BEGIN
+    INSERT INTO customer_age_stats AS s (age, customers)
+    SELECT d.age, d.customers
+    FROM unnest(deltas) d
+    WHERE d.customers <> 0
+    ORDER BY d.age
+    ON CONFLICT (age) DO UPDATE SET customers = s.customers + EXCLUDED.customers;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION customer_age_stats_inserted() RETURNS trigger AS $$
+BEGIN
+    PERFORM customer_age_stats_apply(ARRAY(
+        SELECT ROW(age, count(*))::customer_age_stats FROM inserted GROUP BY age));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION customer_age_stats_deleted() RETURNS trigger AS $$
+BEGIN
+    PERFORM customer_age_stats_apply(ARRAY(
+        SELECT ROW(age, -count(*))::customer_age_stats FROM deleted GROUP BY age));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION customer_age_stats_updated() RETURNS trigger AS $$
+BEGIN
+    PERFORM customer_age_stats_apply(ARRAY(
+        SELECT ROW(age, sum(delta))::customer_age_stats
+        FROM (
+            SELECT age, 1 AS delta FROM updated
+            UNION ALL
+            SELECT age, -1 AS delta FROM previous
+        ) changes
+        GROUP BY age));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION customer_age_stats_truncated() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM customer_age_stats;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_age_stats_insert
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_age_stats_inserted();
+
+CREATE TRIGGER customer_age_stats_delete
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS deleted
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_age_stats_deleted();
+
+-- transition tables cannot be combined with UPDATE OF age, so every update statement runs this;
+-- when no age changed the deltas all cancel out and nothing is written
+CREATE TRIGGER customer_age_stats_update
+    AFTER UPDATE ON customer
+    REFERENCING OLD TABLE AS previous NEW TABLE AS updated
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_age_stats_updated();
+
+CREATE TRIGGER customer_age_stats_truncate
+    AFTER TRUNCATE ON customer
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_age_stats_truncated();
@@ -0,0 +1,12 @@
+-- responses replayed for retried writes carrying an Idempotency-Key, see IdempotencyFilter
+CREATE TABLE idempotency_key(
+    key TEXT PRIMARY KEY,
+    fingerprint TEXT NOT NULL,
+    status INT NOT NULL,
+    error_message TEXT,
+    headers TEXT NOT NULL,
+    body BYTEA NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idempotency_key_expires_at_idx ON idempotency_key (expires_at);
@@ -0,0 +1,6 @@
+-- a row without a status is a claim: some instance is still running the request, see IdempotencyStore
+ALTER TABLE idempotency_key
+    ALTER COLUMN fingerprint DROP NOT NULL,
+    ALTER COLUMN status DROP NOT NULL,
+    ALTER COLUMN headers DROP NOT NULL,
+    ALTER COLUMN body DROP NOT NULL;
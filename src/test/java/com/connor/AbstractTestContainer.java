@@ -40,7 +40,7 @@ public abstract class AbstractTestContainer {
         registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
     }
 
-    private static DataSource getDataSource() {
+    protected static DataSource getDataSource() {
         return DataSourceBuilder.create()
                 .driverClassName(postgreSQLContainer.getDriverClassName())
                 .url(postgreSQLContainer.getJdbcUrl())
@@ -0,0 +1,119 @@
+package com.connor.customer.business;
+
+import com.connor.customer.config.CustomerBulkProperties;
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerBulkRegistrationResponse;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerRegistrationResult;
+import com.connor.exception.RequestValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.connor.customer.payload.CustomerRegistrationStatus.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBulkRegistrationServiceTest {
+
+    @Mock private CustomerDao customerDao;
+    private CustomerBulkRegistrationService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerBulkRegistrationService(customerDao, new CustomerBulkProperties(2, 5));
+    }
+
+    @Test
+    void addCustomers() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27),
+                new CustomerRegistrationRequest("Connor", "connor@gmail.com", 28),
+                new CustomerRegistrationRequest("Alex Again", "alex@gmail.com", 30),
+                new CustomerRegistrationRequest("Jamila", "jamila@gmail.com", 22),
+                new CustomerRegistrationRequest(null, "nobody@gmail.com", 22)
+        );
+        when(customerDao.selectExistingEmails(Set.of("alex@gmail.com", "connor@gmail.com", "jamila@gmail.com")))
+                .thenReturn(Set.of("connor@gmail.com"));
+
+        CustomerBulkRegistrationResponse actual = underTest.addCustomers(requests);
+
+        assertThat(actual.created()).isEqualTo(2);
+        assertThat(actual.rejected()).isEqualTo(3);
+        assertThat(actual.results())
+                .extracting(CustomerRegistrationResult::status)
+                .containsExactly(CREATED, EMAIL_TAKEN, DUPLICATE_IN_REQUEST, CREATED, INVALID);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Customer>> customersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(customerDao).insertCustomers(customersCaptor.capture(), eq(2));
+        assertThat(customersCaptor.getValue())
+                .extracting(Customer::getEmail)
+                .containsExactly("alex@gmail.com", "jamila@gmail.com");
+    }
+
+    @Test
+    void willNotInsertWhenEveryCustomerIsRejected() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27)
+        );
+        when(customerDao.selectExistingEmails(Set.of("alex@gmail.com"))).thenReturn(Set.of("alex@gmail.com"));
+
+        CustomerBulkRegistrationResponse actual = underTest.addCustomers(requests);
+
+        assertThat(actual.created()).isZero();
+        assertThat(actual.results()).extracting(CustomerRegistrationResult::status).containsExactly(EMAIL_TAKEN);
+        verify(customerDao, never()).insertCustomers(anyList(), anyInt());
+    }
+
+    @Test
+    void marksEmailsRegisteredConcurrentlyAsTaken() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27),
+                new CustomerRegistrationRequest("Jamila", "jamila@gmail.com", 22)
+        );
+        when(customerDao.selectExistingEmails(Set.of("alex@gmail.com", "jamila@gmail.com"))).thenReturn(Set.of());
+        when(customerDao.insertCustomers(anyList(), anyInt())).thenReturn(Set.of("alex@gmail.com"));
+
+        CustomerBulkRegistrationResponse actual = underTest.addCustomers(requests);
+
+        assertThat(actual.created()).isEqualTo(1);
+        assertThat(actual.rejected()).isEqualTo(1);
+        assertThat(actual.results()).extracting(CustomerRegistrationResult::status).containsExactly(EMAIL_TAKEN, CREATED);
+    }
+
+    @Test
+    void willThrowWhenTooManyCustomers() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("A", "a@gmail.com", 20),
+                new CustomerRegistrationRequest("B", "b@gmail.com", 20),
+                new CustomerRegistrationRequest("C", "c@gmail.com", 20),
+                new CustomerRegistrationRequest("D", "d@gmail.com", 20),
+                new CustomerRegistrationRequest("E", "e@gmail.com", 20),
+                new CustomerRegistrationRequest("F", "f@gmail.com", 20)
+        );
+
+        assertThatThrownBy(() -> underTest.addCustomers(requests))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("at most 5 customers can be registered at once");
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void willThrowWhenNoCustomers() {
+        assertThatThrownBy(() -> underTest.addCustomers(List.of()))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("no customers to register");
+    }
+}
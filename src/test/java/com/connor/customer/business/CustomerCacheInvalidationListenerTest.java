@@ -0,0 +1,87 @@
+package com.connor.customer.business;
+
+import com.connor.AbstractTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerCacheInvalidationListenerTest extends AbstractTestContainer {
+
+    private CustomerCacheInvalidationListener underTest;
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(postgreSQLContainer.getJdbcUrl());
+        dataSourceProperties.setUsername(postgreSQLContainer.getUsername());
+        dataSourceProperties.setPassword(postgreSQLContainer.getPassword());
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CustomerService.CUSTOMER_CACHE);
+        cache = cacheManager.getCache(CustomerService.CUSTOMER_CACHE);
+        underTest = new CustomerCacheInvalidationListener(dataSourceProperties, cacheManager);
+        underTest.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.stop();
+    }
+
+    @Test
+    void evictsCustomerUpdatedElsewhere() throws InterruptedException {
+        Long id = insertCustomer();
+        Long otherId = insertCustomer();
+        waitForListener();
+        cache.put(id, "cached");
+        cache.put(otherId, "cached");
+
+        jdbcTemplate.update("UPDATE customer SET age = age + 1 WHERE id = ?", id);
+
+        awaitEviction(id);
+        assertThat(cache.get(id)).isNull();
+        assertThat(cache.get(otherId)).isNotNull();
+    }
+
+    @Test
+    void evictsCustomerDeletedElsewhere() throws InterruptedException {
+        Long id = insertCustomer();
+        waitForListener();
+        cache.put(id, "cached");
+
+        jdbcTemplate.update("DELETE FROM customer WHERE id = ?", id);
+
+        awaitEviction(id);
+        assertThat(cache.get(id)).isNull();
+    }
+
+    private Long insertCustomer() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO customer (name, email, age) VALUES (?, ?, ?) RETURNING id",
+                Long.class,
+                faker.name().fullName(),
+                "cache-" + UUID.randomUUID() + "@email.com",
+                30);
+    }
+
+    private void waitForListener() throws InterruptedException {
+        for (int i = 0; i < 50 && !underTest.isListening(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(underTest.isListening()).isTrue();
+    }
+
+    private void awaitEviction(Long id) throws InterruptedException {
+        for (int i = 0; i < 50 && cache.get(id) != null; i++) {
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.connor.customer.business;
+
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.payload.CustomerFileFormat;
+import com.connor.customer.payload.CustomerView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExportServiceTest {
+
+    @Mock private CustomerDao customerDao;
+    private CustomerExportService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerExportService(customerDao, new ObjectMapper());
+    }
+
+    @Test
+    void exportCustomersAsNdjson() throws IOException {
+        when(customerDao.streamAllCustomers()).thenReturn(Stream.of(
+                new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L),
+                new CustomerView(2L, "Connor", "connor@gmail.com", 28, 0L)
+        ));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        underTest.exportCustomers(CustomerFileFormat.NDJSON, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"id":1,"name":"Alex","email":"alex@gmail.com","age":27}
+                {"id":2,"name":"Connor","email":"connor@gmail.com","age":28}
+                """);
+    }
+
+    @Test
+    void exportCustomersAsCsv() throws IOException {
+        when(customerDao.streamAllCustomers()).thenReturn(Stream.of(
+                new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L),
+                new CustomerView(2L, "Connor, \"Jr\"", "connor@gmail.com", 28, 0L)
+        ));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        underTest.exportCustomers(CustomerFileFormat.CSV, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                id,name,email,age
+                1,Alex,alex@gmail.com,27
+                2,"Connor, ""Jr\""",connor@gmail.com,28
+                """);
+    }
+
+    @Test
+    void exportCustomersClosesStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(customerDao.streamAllCustomers()).thenReturn(Stream.<CustomerView>empty().onClose(() -> closed.set(true)));
+
+        underTest.exportCustomers(CustomerFileFormat.NDJSON, new ByteArrayOutputStream());
+
+        assertThat(closed).isTrue();
+    }
+}
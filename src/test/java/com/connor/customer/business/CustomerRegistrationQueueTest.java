@@ -0,0 +1,235 @@
+package com.connor.customer.business;
+
+import com.connor.customer.config.CustomerRegistrationQueueProperties;
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerRegistrationStatus;
+import com.connor.customer.payload.CustomerRegistrationTicket;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerRegistrationQueueTest {
+
+    @Mock private CustomerDao customerDao;
+    private final AtomicLong ids = new AtomicLong();
+    private final List<List<Customer>> batches = new ArrayList<>();
+    private CustomerRegistrationQueue underTest;
+
+    @AfterEach
+    void tearDown() {
+        if (underTest != null && underTest.isRunning()) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    void willThrowWhenRegistrationInvalid() {
+        underTest = queue(10);
+        underTest.start();
+
+        assertThatThrownBy(() -> underTest.submit(new CustomerRegistrationRequest("Alex", null, 27)))
+                .isInstanceOf(RequestValidationException.class);
+        assertThat(underTest.size()).isZero();
+    }
+
+    @Test
+    void acceptedRegistrationsAreCommittedInBatchesOnStop() {
+        recordBatches();
+        underTest = queue(100);
+        underTest.start();
+
+        List<CustomerRegistrationTicket> queued = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            queued.add(submit("alex" + i + "@gmail.com"));
+        }
+        assertThat(queued).allMatch(ticket -> ticket.status() == CustomerRegistrationStatus.QUEUED);
+
+        underTest.stop();
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(25);
+        for (CustomerRegistrationTicket ticket : queued) {
+            CustomerRegistrationTicket actual = underTest.getTicket(ticket.id());
+            assertThat(actual.status()).isEqualTo(CustomerRegistrationStatus.CREATED);
+            assertThat(actual.customerId()).isNotNull();
+        }
+    }
+
+    @Test
+    void takenAndRepeatedEmailsAreRejected() {
+        recordBatches();
+        when(customerDao.selectExistingEmails(anyCollection())).thenReturn(Set.of("taken@gmail.com"));
+        underTest = queue(10);
+        underTest.startAccepting();
+
+        CustomerRegistrationTicket taken = submit("taken@gmail.com");
+        CustomerRegistrationTicket first = submit("alex@gmail.com");
+        CustomerRegistrationTicket repeated = submit("alex@gmail.com");
+        underTest.start();
+        underTest.stop();
+
+        assertThat(underTest.getTicket(taken.id()).status()).isEqualTo(CustomerRegistrationStatus.EMAIL_TAKEN);
+        assertThat(underTest.getTicket(first.id()).status()).isEqualTo(CustomerRegistrationStatus.CREATED);
+        assertThat(underTest.getTicket(repeated.id()).status()).isEqualTo(CustomerRegistrationStatus.EMAIL_TAKEN);
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(Customer::getEmail).containsExactly("alex@gmail.com");
+    }
+
+    @Test
+    void marksEmailsSkippedByTheInsertAsTaken() {
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> customer.setId(customer.getEmail().equals("raced@gmail.com") ? null : ids.incrementAndGet()));
+            return Set.of("raced@gmail.com");
+        }).when(customerDao).insertCustomers(any(), anyInt());
+        underTest = queue(10);
+        underTest.startAccepting();
+
+        CustomerRegistrationTicket raced = submit("raced@gmail.com");
+        CustomerRegistrationTicket other = submit("other@gmail.com");
+        underTest.start();
+        underTest.stop();
+
+        assertThat(underTest.getTicket(raced.id()).status()).isEqualTo(CustomerRegistrationStatus.EMAIL_TAKEN);
+        assertThat(underTest.getTicket(raced.id()).customerId()).isNull();
+        assertThat(underTest.getTicket(other.id()).status()).isEqualTo(CustomerRegistrationStatus.CREATED);
+        assertThat(underTest.getTicket(other.id()).customerId()).isNotNull();
+    }
+
+    @Test
+    void fallsBackToSingleInsertsWhenCommitFails() {
+        TransactionOperations failingCommit = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                action.doInTransaction(null);
+                throw new DataIntegrityViolationException("could not execute batch");
+            }
+        };
+        doAnswer(invocation -> {
+            Customer customer = invocation.getArgument(0);
+            if (customer.getEmail().equals("raced@gmail.com")) {
+                throw new DuplicateResourceException("Customer with email already exist");
+            }
+            customer.setId(ids.incrementAndGet());
+            return null;
+        }).when(customerDao).insertCustomer(any());
+        underTest = new CustomerRegistrationQueue(customerDao, failingCommit, properties(10));
+        underTest.startAccepting();
+
+        CustomerRegistrationTicket raced = submit("raced@gmail.com");
+        CustomerRegistrationTicket other = submit("other@gmail.com");
+        underTest.start();
+        underTest.stop();
+
+        assertThat(underTest.getTicket(raced.id()).status()).isEqualTo(CustomerRegistrationStatus.EMAIL_TAKEN);
+        assertThat(underTest.getTicket(other.id()).status()).isEqualTo(CustomerRegistrationStatus.CREATED);
+    }
+
+    @Test
+    void writerRetriesWhenTransactionCannotBegin() {
+        recordBatches();
+        AtomicInteger attempts = new AtomicInteger();
+        TransactionOperations databaseDownOnce = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new CannotCreateTransactionException("Could not open JDBC Connection for transaction");
+                }
+                return action.doInTransaction(null);
+            }
+        };
+        underTest = new CustomerRegistrationQueue(customerDao, databaseDownOnce, properties(10));
+        underTest.start();
+
+        CustomerRegistrationTicket first = submit("alex@gmail.com");
+        await(() -> underTest.getTicket(first.id()).status() == CustomerRegistrationStatus.CREATED);
+        CustomerRegistrationTicket second = submit("jamila@gmail.com");
+        underTest.stop();
+
+        assertThat(attempts).hasValue(3);
+        assertThat(underTest.getTicket(second.id()).status()).isEqualTo(CustomerRegistrationStatus.CREATED);
+    }
+
+    @Test
+    void willThrowWithRetryAfterWhenQueueFull() {
+        underTest = queue(1);
+        underTest.startAccepting();
+        submit("alex@gmail.com");
+
+        assertThatThrownBy(() -> submit("jamila@gmail.com"))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class, e ->
+                        assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1"));
+        assertThat(underTest.size()).isEqualTo(1);
+    }
+
+    @Test
+    void willThrowAfterStop() {
+        underTest = queue(10);
+        underTest.start();
+        underTest.stop();
+
+        assertThatThrownBy(() -> underTest.submit(new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27)))
+                .isInstanceOf(ServiceUnavailableException.class);
+        verifyNoInteractions(customerDao);
+    }
+
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> customer.setId(ids.incrementAndGet()));
+            batches.add(List.copyOf(customers));
+            return Set.of();
+        }).when(customerDao).insertCustomers(any(), anyInt());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private CustomerRegistrationTicket submit(String email) {
+        return underTest.submit(new CustomerRegistrationRequest("Alex", email, 27));
+    }
+
+    private CustomerRegistrationQueue queue(int capacity) {
+        return new CustomerRegistrationQueue(customerDao, TransactionOperations.withoutTransaction(), properties(capacity));
+    }
+
+    private static CustomerRegistrationQueueProperties properties(int capacity) {
+        return new CustomerRegistrationQueueProperties(
+                true, capacity, 10, Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMinutes(1), Duration.ofSeconds(5));
+    }
+}
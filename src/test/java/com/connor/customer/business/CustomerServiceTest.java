@@ -2,8 +2,15 @@ package com.connor.customer.business;
 
 import com.connor.customer.dao.CustomerDao;
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeBucket;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerPage;
 import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import com.connor.customer.payload.CustomerStatistics;
 import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.customer.payload.CustomerView;
 import com.connor.exception.DuplicateResourceException;
 import com.connor.exception.RequestValidationException;
 import com.connor.exception.ResourceNotFoundException;
@@ -13,7 +20,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.DigestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,12 +49,162 @@ class CustomerServiceTest {
         verify(customerDao).selectAllCustomers();
     }
 
+    @Test
+    void getCustomerPageUsesDefaultLimitFromStart() {
+        when(customerDao.selectCustomersAfterId(0L, CustomerService.DEFAULT_PAGE_SIZE + 1)).thenReturn(List.of());
+
+        CustomerPage actual = underTest.getCustomerPage(null, null);
+
+        assertThat(actual.customers()).isEmpty();
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void getCustomerPageReturnsNextCursorWhenMoreRowsExist() {
+        List<CustomerView> customers = List.of(
+                new CustomerView(11L, "Alex", "alex@gmail.com", 27, 0L),
+                new CustomerView(12L, "Connor", "connor@gmail.com", 28, 0L),
+                new CustomerView(13L, "Jamila", "jamila@gmail.com", 29, 0L)
+        );
+        when(customerDao.selectCustomersAfterId(10L, 3)).thenReturn(customers);
+
+        CustomerPage actual = underTest.getCustomerPage(10L, 2);
+
+        assertThat(actual.customers()).containsExactly(customers.get(0), customers.get(1));
+        assertThat(actual.nextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    void getCustomerPageReturnsNoCursorOnLastPage() {
+        List<CustomerView> customers = List.of(new CustomerView(11L, "Alex", "alex@gmail.com", 27, 0L));
+        when(customerDao.selectCustomersAfterId(10L, 3)).thenReturn(customers);
+
+        CustomerPage actual = underTest.getCustomerPage(10L, 2);
+
+        assertThat(actual.customers()).containsExactlyElementsOf(customers);
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void willThrowWhenPageLimitOutOfRange() {
+        assertThatThrownBy(() -> underTest.getCustomerPage(null, CustomerService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("limit must be between 1 and " + CustomerService.MAX_PAGE_SIZE);
+        assertThatThrownBy(() -> underTest.getCustomerPage(null, 0))
+                .isInstanceOf(RequestValidationException.class);
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void writeCustomerPageUsesDefaultLimitFromStart() {
+        OutputStream outputStream = new ByteArrayOutputStream();
+        when(customerDao.writeCustomerPage(0L, CustomerService.DEFAULT_PAGE_SIZE, outputStream)).thenReturn("fingerprint");
+
+        assertThat(underTest.writeCustomerPage(null, null, outputStream)).isEqualTo("fingerprint");
+    }
+
+    @Test
+    void willThrowWhenWrittenPageLimitOutOfRange() {
+        assertThatThrownBy(() -> underTest.writeCustomerPage(null, 0, new ByteArrayOutputStream()))
+                .isInstanceOf(RequestValidationException.class);
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void writeCustomerSearchValidatesLikeSearchCustomers() {
+        OutputStream outputStream = new ByteArrayOutputStream();
+        underTest.writeCustomerSearch("  Alex ", null, null, null, null, 10, outputStream);
+        verify(customerDao).writeCustomers(new CustomerSearchCriteria(
+                "Alex", null, null, null, CustomerSearchSort.RELEVANCE, 10), outputStream);
+
+        assertThatThrownBy(() -> underTest.writeCustomerSearch("Al", null, null, null, null, null, outputStream))
+                .isInstanceOf(RequestValidationException.class);
+        verifyNoMoreInteractions(customerDao);
+    }
+
+    @Test
+    void searchCustomersSortsByRelevanceWhenSearchingByName() {
+        underTest.searchCustomers("  Alex ", "alex@", 18, 30, null, null);
+        verify(customerDao).searchCustomers(new CustomerSearchCriteria(
+                "Alex", "alex@", 18, 30, CustomerSearchSort.RELEVANCE, CustomerService.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void searchCustomersSortsByIdWithoutName() {
+        underTest.searchCustomers(null, null, 18, null, null, 10);
+        verify(customerDao).searchCustomers(new CustomerSearchCriteria(
+                null, null, 18, null, CustomerSearchSort.ID, 10));
+    }
+
+    @Test
+    void willThrowWhenSearchNameTooShort() {
+        assertThatThrownBy(() -> underTest.searchCustomers("Al", null, null, null, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("name must be at least " + CustomerService.MIN_NAME_SEARCH_LENGTH + " characters");
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void willThrowWhenSearchAgeRangeInverted() {
+        assertThatThrownBy(() -> underTest.searchCustomers(null, null, 40, 30, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("minAge must not be greater than maxAge");
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void willThrowWhenSortingByRelevanceWithoutName() {
+        assertThatThrownBy(() -> underTest.searchCustomers(null, "alex", null, null, "relevance", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("sort relevance requires a name");
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void getCustomerStatisticsBucketsAgeCounts() {
+        when(customerDao.selectAgeCounts()).thenReturn(List.of(
+                new CustomerAgeCount(18, 2),
+                new CustomerAgeCount(19, 1),
+                new CustomerAgeCount(42, 1)
+        ));
+
+        CustomerStatistics actual = underTest.getCustomerStatistics(null);
+
+        assertThat(actual.totalCustomers()).isEqualTo(4);
+        assertThat(actual.minAge()).isEqualTo(18);
+        assertThat(actual.maxAge()).isEqualTo(42);
+        assertThat(actual.averageAge()).isEqualTo((18 * 2 + 19 + 42) / 4.0);
+        assertThat(actual.ageHistogram()).containsExactly(
+                new CustomerAgeBucket(10, 19, 3),
+                new CustomerAgeBucket(20, 29, 0),
+                new CustomerAgeBucket(30, 39, 0),
+                new CustomerAgeBucket(40, 49, 1)
+        );
+    }
+
+    @Test
+    void getCustomerStatisticsWithoutCustomers() {
+        when(customerDao.selectAgeCounts()).thenReturn(List.of());
+
+        CustomerStatistics actual = underTest.getCustomerStatistics(5);
+
+        assertThat(actual).isEqualTo(new CustomerStatistics(0, null, null, null, List.of()));
+    }
+
+    @Test
+    void willThrowWhenStatisticsBucketWidthNotPositive() {
+        assertThatThrownBy(() -> underTest.getCustomerStatistics(0))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("bucketWidth must be at least 1");
+        verifyNoInteractions(customerDao);
+    }
+
     @Test
     void canGetCustomerById() {
         Long id = 1L;
-        Customer customer = new Customer(id, "Alex", "alex@gmail.com", 27);
+        CustomerView customer = new CustomerView(id, "Alex", "alex@gmail.com", 27, 0L);
         when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        Customer actual = underTest.getCustomerById(id);
+        CustomerView actual = underTest.getCustomerById(id);
 
         assertThat(actual).isEqualTo(customer);
         verify(customerDao).selectCustomerById(id);
@@ -62,7 +224,6 @@ class CustomerServiceTest {
     @Test
     void addCustomer() {
         CustomerRegistrationRequest request = new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27);
-        when(customerDao.existCustomerWithEmail(request.email())).thenReturn(false);
         underTest.addCustomer(request);
 
         ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
@@ -73,32 +234,34 @@ class CustomerServiceTest {
         assertThat(captorValue.getName()).isEqualTo(request.name());
         assertThat(captorValue.getEmail()).isEqualTo(request.email());
         assertThat(captorValue.getAge()).isEqualTo(request.age());
+        verify(customerDao, never()).existCustomerWithEmail(any());
     }
 
     @Test
     void willThrowWhenEmailExistAddCustomer() {
         CustomerRegistrationRequest request = new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27);
-        when(customerDao.existCustomerWithEmail(request.email())).thenReturn(true);
+        doThrow(new DuplicateResourceException("Customer with email already exist"))
+                .when(customerDao).insertCustomer(any());
 
         assertThatThrownBy(() -> underTest.addCustomer(request))
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("Customer with email already exist");
-        verify(customerDao, never()).insertCustomer(any());
     }
 
     @Test
     void deleteCustomerById() {
         Long id = 1L;
-        when(customerDao.existCustomerWithId(id)).thenReturn(true);
         underTest.deleteCustomerById(id);
 
         verify(customerDao).deleteCustomer(id);
+        verify(customerDao, never()).existCustomerWithId(any());
     }
 
     @Test
     void willThrowWhenNoDeleteCustomerById() {
         Long id = 1L;
-        when(customerDao.existCustomerWithId(id)).thenReturn(false);
+        doThrow(new ResourceNotFoundException("Customer could not be found"))
+                .when(customerDao).deleteCustomer(id);
 
         assertThatThrownBy(() -> underTest.deleteCustomerById(id))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -108,54 +271,103 @@ class CustomerServiceTest {
     @Test
     void updateCustomer() {
         Long id = 1L;
-        Customer customer = new Customer(id, "Alex", "alex@gmail.com", 27);
         CustomerUpdateRequest request = new CustomerUpdateRequest("Connor", "connor@gmail.com", 28);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        when(customerDao.existCustomerWithEmail(request.email())).thenReturn(false);
-        underTest.updateCustomer(id, request);
+        underTest.updateCustomer(id, request, null);
 
-        assertThat(customer.getName()).isEqualTo(request.name());
-        assertThat(customer.getEmail()).isEqualTo(request.email());
-        assertThat(customer.getAge()).isEqualTo(request.age());
-        verify(customerDao).updateCustomer(customer);
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
+
+        Customer captorValue = customerArgumentCaptor.getValue();
+        assertThat(captorValue.getId()).isEqualTo(id);
+        assertThat(captorValue.getName()).isEqualTo(request.name());
+        assertThat(captorValue.getEmail()).isEqualTo(request.email());
+        assertThat(captorValue.getAge()).isEqualTo(request.age());
+        verify(customerDao, never()).selectCustomerById(any());
+        verify(customerDao, never()).existCustomerWithEmail(any());
     }
 
     @Test
     void onlyUpdateCustomerName() {
         Long id = 1L;
-        Customer customer = new Customer(id, "Alex", "alex@gmail.com", 27);
         CustomerUpdateRequest request = new CustomerUpdateRequest("Connor", null, null);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        underTest.updateCustomer(id, request);
+        underTest.updateCustomer(id, request, null);
 
-        assertThat(customer.getName()).isEqualTo(request.name());
-        verify(customerDao).updateCustomer(customer);
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
+
+        Customer captorValue = customerArgumentCaptor.getValue();
+        assertThat(captorValue.getName()).isEqualTo(request.name());
+        assertThat(captorValue.getEmail()).isNull();
+        assertThat(captorValue.getAge()).isNull();
     }
 
     @Test
     void willThrowNoChangesUpdateCustomer() {
         Long id = 1L;
-        Customer customer = new Customer(id, "Alex", "alex@gmail.com", 27);
-        CustomerUpdateRequest request = new CustomerUpdateRequest("Alex", "alex@gmail.com", 27);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        CustomerUpdateRequest request = new CustomerUpdateRequest(null, null, null);
 
-        assertThatThrownBy(() -> underTest.updateCustomer(id, request))
+        assertThatThrownBy(() -> underTest.updateCustomer(id, request, null))
                 .isInstanceOf(RequestValidationException.class)
                 .hasMessage("no changes found");
         verify(customerDao, never()).updateCustomer(any());
     }
 
+    @Test
+    void updateCustomerPassesExpectedVersion() {
+        CustomerUpdateRequest request = new CustomerUpdateRequest("Connor", null, null);
+        underTest.updateCustomer(1L, request, 3L);
+
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
+        assertThat(customerArgumentCaptor.getValue().getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void getCustomerVersion() {
+        when(customerDao.selectCustomerVersion(1L)).thenReturn(Optional.of(4L));
+
+        assertThat(underTest.getCustomerVersion(1L)).isEqualTo(4L);
+        verify(customerDao, never()).selectCustomerById(any());
+    }
+
+    @Test
+    void willThrowWhenGetCustomerVersionNotFound() {
+        when(customerDao.selectCustomerVersion(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.getCustomerVersion(1L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer could not be found");
+    }
+
+    @Test
+    void fingerprintCoversIdsVersionsAndNextPage() {
+        CustomerView first = new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L);
+        CustomerView second = new CustomerView(2L, "Connor", "connor@gmail.com", 28, 3L);
+
+        // md5("1:0,2:3;more"), the same string the fingerprint SQL builds
+        assertThat(CustomerService.fingerprint(new CustomerPage(List.of(first, second), 2L)))
+                .isEqualTo(DigestUtils.md5DigestAsHex("1:0,2:3;more".getBytes(StandardCharsets.UTF_8)));
+        assertThat(CustomerService.fingerprint(new CustomerPage(List.of(), null)))
+                .isEqualTo(DigestUtils.md5DigestAsHex(new byte[0]));
+    }
+
+    @Test
+    void getCustomerPageFingerprintUsesDefaultsAndValidatesLimit() {
+        when(customerDao.selectCustomerPageFingerprint(0L, CustomerService.DEFAULT_PAGE_SIZE)).thenReturn("abc");
+
+        assertThat(underTest.getCustomerPageFingerprint(null, null)).isEqualTo("abc");
+        assertThatThrownBy(() -> underTest.getCustomerPageFingerprint(null, 0))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
     @Test
     void willThrowDuplicateEmailUpdateCustomer() {
         Long id = 1L;
-        Customer customer = new Customer(id, "Alex", "alex@gmail.com", 27);
         CustomerUpdateRequest request = new CustomerUpdateRequest("Connor", "connor@gmail.com", 28);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        when(customerDao.existCustomerWithEmail(request.email())).thenReturn(true);
+        when(customerDao.updateCustomer(any())).thenThrow(new DuplicateResourceException("Email is already taken"));
 
-        assertThatThrownBy(() -> underTest.updateCustomer(id, request))
+        assertThatThrownBy(() -> underTest.updateCustomer(id, request, null))
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("Email is already taken");
-        verify(customerDao, never()).updateCustomer(any());
     }
 }
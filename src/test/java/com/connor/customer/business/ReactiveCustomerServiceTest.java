@@ -0,0 +1,117 @@
+package com.connor.customer.business;
+
+import com.connor.customer.dao.ReactiveCustomerDao;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceTest {
+
+    @Mock private ReactiveCustomerDao customerDao;
+    private ReactiveCustomerService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveCustomerService(customerDao);
+    }
+
+    @Test
+    void getCustomersReturnsFirstPageWithoutPagingParameters() {
+        CustomerView customer = new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L);
+        when(customerDao.selectCustomersAfterId(0L, CustomerService.DEFAULT_PAGE_SIZE)).thenReturn(Flux.just(customer));
+
+        StepVerifier.create(underTest.getCustomers(null, null))
+                .expectNext(customer)
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomersUsesKeysetWhenCursorGiven() {
+        when(customerDao.selectCustomersAfterId(10L, CustomerService.DEFAULT_PAGE_SIZE)).thenReturn(Flux.empty());
+
+        StepVerifier.create(underTest.getCustomers(10L, null)).verifyComplete();
+    }
+
+    @Test
+    void getCustomersRejectsLimitOutOfRange() {
+        StepVerifier.create(underTest.getCustomers(null, CustomerService.MAX_PAGE_SIZE + 1))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(RequestValidationException.class)
+                        .hasMessage("limit must be between 1 and " + CustomerService.MAX_PAGE_SIZE))
+                .verify();
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void getCustomerById() {
+        CustomerView customer = new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L);
+        when(customerDao.selectCustomerById(1L)).thenReturn(Mono.just(customer));
+
+        StepVerifier.create(underTest.getCustomerById(1L))
+                .expectNext(customer)
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomerByIdFailsWhenMissing() {
+        when(customerDao.selectCustomerById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(underTest.getCustomerById(1L))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(ResourceNotFoundException.class)
+                        .hasMessage("Customer could not be found"))
+                .verify();
+    }
+
+    @Test
+    void addCustomer() {
+        when(customerDao.insertCustomer(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(underTest.addCustomer(new CustomerRegistrationRequest("Alex", "alex@gmail.com", 27)))
+                .verifyComplete();
+
+        ArgumentCaptor<Customer> captor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).insertCustomer(captor.capture());
+        assertThat(captor.getValue().getEmail()).isEqualTo("alex@gmail.com");
+    }
+
+    @Test
+    void updateCustomerRejectsEmptyRequest() {
+        StepVerifier.create(underTest.updateCustomer(1L, new CustomerUpdateRequest(null, null, null)))
+                .expectError(RequestValidationException.class)
+                .verify();
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void updateCustomerPassesChangesWithId() {
+        when(customerDao.updateCustomer(any()))
+                .thenReturn(Mono.just(new CustomerView(1L, "Alex", "new@gmail.com", 27, 1L)));
+
+        StepVerifier.create(underTest.updateCustomer(1L, new CustomerUpdateRequest(null, "new@gmail.com", null)))
+                .verifyComplete();
+
+        ArgumentCaptor<Customer> captor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).updateCustomer(captor.capture());
+        assertThat(captor.getValue().getId()).isEqualTo(1L);
+        assertThat(captor.getValue().getName()).isNull();
+        assertThat(captor.getValue().getEmail()).isEqualTo("new@gmail.com");
+    }
+}
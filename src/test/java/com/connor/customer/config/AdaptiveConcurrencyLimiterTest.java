@@ -0,0 +1,82 @@
+package com.connor.customer.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(10, 2, 100, 2.0, 0.9);
+    private long now;
+
+    @Test
+    void limitGrowsWhileLatencyStaysFlat() {
+        for (int i = 0; i < 50; i++) {
+            saturate(10 * MILLIS);
+        }
+
+        assertThat(underTest.getLimit()).isGreaterThan(10);
+        assertThat(underTest.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitShrinksWhenLatencyClimbsPastTolerance() {
+        for (int i = 0; i < 20; i++) {
+            saturate(10 * MILLIS);
+        }
+        int healthy = underTest.getLimit();
+
+        saturate(100 * MILLIS);
+        saturate(100 * MILLIS);
+
+        assertThat(underTest.getLimit()).isLessThan(healthy);
+    }
+
+    @Test
+    void failuresBackOffMultiplicatively() {
+        AdaptiveConcurrencyLimiter.Permit permit = underTest.tryAcquire(RequestPriority.READ, now);
+        underTest.release(permit, now + MILLIS, true);
+
+        assertThat(underTest.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void bulkIsShedBeforeReads() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(underTest.tryAcquire(RequestPriority.BULK, now));
+        }
+
+        assertThat(permits).doesNotContainNull();
+        assertThat(underTest.tryAcquire(RequestPriority.BULK, now)).isNull();
+        assertThat(underTest.tryAcquire(RequestPriority.WRITE, now)).isNotNull();
+        assertThat(underTest.getInFlight()).isEqualTo(6);
+    }
+
+    @Test
+    void samplesFromAnIdleServiceLeaveTheLimitAlone() {
+        for (int i = 0; i < 50; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = underTest.tryAcquire(RequestPriority.READ, now);
+            now += 500 * MILLIS;
+            underTest.release(permit, now, false);
+        }
+
+        assertThat(underTest.getLimit()).isEqualTo(10);
+    }
+
+    // fill the current limit, then complete every request after the given latency
+    private void saturate(long latencyNanos) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = underTest.tryAcquire(RequestPriority.READ, now)) != null) {
+            permits.add(permit);
+        }
+        now += latencyNanos;
+        permits.forEach(p -> underTest.release(p, now, false));
+    }
+}
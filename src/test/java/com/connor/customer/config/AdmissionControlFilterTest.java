@@ -0,0 +1,127 @@
+package com.connor.customer.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0, 0.5);
+    private final AtomicInteger executions = new AtomicInteger();
+    private long now;
+    private final AdmissionControlFilter underTest = new AdmissionControlFilter(limiter, properties("X-Client-Id"), registry, () -> now);
+
+    @Test
+    void rateLimitsEachClientSeparately() throws Exception {
+        FilterChain chain = (req, res) -> executions.incrementAndGet();
+
+        assertThat(filter("alex", chain).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(filter("alex", chain).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        MockHttpServletResponse limited = filter("alex", chain);
+        MockHttpServletResponse other = filter("jamila", chain);
+
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(other.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(executions).hasValue(3);
+        assertThat(registry.get("customer.admission.rejected").tag("status", "429").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresClientHeaderUnlessConfigured() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, properties(null), registry, () -> now);
+        FilterChain chain = (req, res) -> executions.incrementAndGet();
+
+        int rejected = 0;
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+            request.addHeader("X-Client-Id", "rotated-" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, chain);
+            if (response.getStatus() == 429) {
+                rejected++;
+            }
+        }
+
+        assertThat(rejected).isEqualTo(1);
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void tokensRefillOverTime() throws Exception {
+        FilterChain chain = (req, res) -> executions.incrementAndGet();
+        filter("alex", chain);
+        filter("alex", chain);
+
+        now += 1_000_000_000L;
+
+        assertThat(filter("alex", chain).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void shedsWithServiceUnavailableWhenAtCapacity() throws Exception {
+        AdaptiveConcurrencyLimiter full = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 0.5);
+        AdmissionControlFilter filter = new AdmissionControlFilter(full, properties("X-Client-Id"), registry, () -> now);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.addHeader("X-Client-Id", "alex");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            executions.incrementAndGet();
+            // a second request arriving while the only slot is taken
+            MockHttpServletRequest nested = new MockHttpServletRequest("GET", "/api/v1/customers/2");
+            nested.addHeader("X-Client-Id", "jamila");
+            MockHttpServletResponse nestedResponse = new MockHttpServletResponse();
+            filter.doFilter(nested, nestedResponse, (r, s) -> executions.incrementAndGet());
+            ((HttpServletResponse) res).setStatus(nestedResponse.getStatus());
+            res.getWriter().write(nestedResponse.getHeader(HttpHeaders.RETRY_AFTER));
+        });
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(response.getContentAsString()).isEqualTo("1");
+        assertThat(executions).hasValue(1);
+        assertThat(full.getInFlight()).isZero();
+    }
+
+    @Test
+    void serverErrorsShrinkTheLimit() throws Exception {
+        filter("alex", (req, res) -> ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void classifiesRequestsByPriority() {
+        assertThat(AdmissionControlFilter.priority(new MockHttpServletRequest("GET", "/api/v1/customers")))
+                .isEqualTo(RequestPriority.READ);
+        assertThat(AdmissionControlFilter.priority(new MockHttpServletRequest("PUT", "/api/v1/customers/1")))
+                .isEqualTo(RequestPriority.WRITE);
+        assertThat(AdmissionControlFilter.priority(new MockHttpServletRequest("POST", "/api/v1/customers/bulk")))
+                .isEqualTo(RequestPriority.BULK);
+        assertThat(AdmissionControlFilter.priority(new MockHttpServletRequest("GET", "/api/v1/customers/export")))
+                .isEqualTo(RequestPriority.BULK);
+    }
+
+    private MockHttpServletResponse filter(String client, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.addHeader("X-Client-Id", client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, chain);
+        return response;
+    }
+
+    // two-request burst, refilled at one request per second
+    private static AdmissionControlProperties properties(String clientHeader) {
+        return new AdmissionControlProperties(true, 4, 1, 10, 2.0, 0.5, clientHeader, 1, 2, 100);
+    }
+}
@@ -0,0 +1,75 @@
+package com.connor.customer.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionLimitingDataSourceTest {
+
+    @Mock private DataSource dataSource;
+    @Mock private Connection connection;
+    private ConnectionLimitingDataSource underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ConnectionLimitingDataSource(dataSource, 1, 0, 50);
+    }
+
+    @Test
+    void releasesPermitOnceWhenConnectionClosed() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        Connection actual = underTest.getConnection();
+        assertThat(underTest.getAvailablePermits()).isZero();
+
+        actual.close();
+        actual.close();
+
+        assertThat(underTest.getAvailablePermits()).isEqualTo(1);
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    void willThrowWhenQueueIsFull() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        underTest.getConnection();
+
+        assertThatThrownBy(() -> underTest.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessage("Too many requests waiting for a database connection");
+        assertThat(underTest.getQueuedCount()).isZero();
+    }
+
+    @Test
+    void willThrowWhenWaitingTimesOut() throws SQLException {
+        underTest = new ConnectionLimitingDataSource(dataSource, 1, 10, 50);
+        when(dataSource.getConnection()).thenReturn(connection);
+        underTest.getConnection();
+
+        assertThatThrownBy(() -> underTest.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessage("Timed out after 50ms waiting for a database connection");
+        assertThat(underTest.getQueuedCount()).isZero();
+    }
+
+    @Test
+    void releasesPermitWhenTargetFails() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThatThrownBy(() -> underTest.getConnection()).hasMessage("down");
+
+        assertThat(underTest.getAvailablePermits()).isEqualTo(1);
+    }
+}
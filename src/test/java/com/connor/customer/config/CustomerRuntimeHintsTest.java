@@ -0,0 +1,38 @@
+package com.connor.customer.config;
+
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerView;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    CustomerRuntimeHintsTest() {
+        new CustomerRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersPayloadsForJacksonAndJpql() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onType(CustomerPage.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(CustomerView.class.getMethod("email"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(CustomerView.class.getDeclaredConstructors()[0]))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Customer.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+    }
+
+    @Test
+    void registersFakerAndZstdResources() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("en/name.yml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("linux/amd64/libzstd-jni-1.5.6-3.so")).accepts(hints);
+        assertThat(hints.jni().getTypeHint(ZstdOutputStreamNoFinalizer.class)).isNotNull();
+    }
+}
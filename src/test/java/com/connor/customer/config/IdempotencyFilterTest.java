@@ -0,0 +1,190 @@
+package com.connor.customer.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter underTest = new IdempotencyFilter(
+            new IdempotencyStore(Duration.ofMinutes(1), 100, null), new DefaultErrorAttributes(), Duration.ofSeconds(5), 1024);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void replaysStoredResponseWithoutRunningTheRequestAgain() throws Exception {
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.LOCATION, "/api/v1/customers/registrations/1");
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+
+        MockHttpServletResponse first = filter("key-1", "{\"name\":\"Alex\"}", chain);
+        MockHttpServletResponse retry = filter("key-1", "{\"name\":\"Alex\"}", chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_ACCEPTED);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/v1/customers/registrations/1");
+        assertThat(retry.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED)).isNull();
+    }
+
+    @Test
+    void replaysClientErrorsThroughSendError() throws Exception {
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).sendError(HttpServletResponse.SC_CONFLICT, "Customer with email already exist");
+        };
+
+        filter("key-1", "{}", chain);
+        MockHttpServletResponse retry = filter("key-1", "{}", chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_CONFLICT);
+        assertThat(retry.getErrorMessage()).isEqualTo("Customer with email already exist");
+    }
+
+    @Test
+    void runsAgainAfterServerError() throws Exception {
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        };
+
+        filter("key-1", "{}", chain);
+        filter("key-1", "{}", chain);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentBody() throws Exception {
+        FilterChain chain = (req, res) -> executions.incrementAndGet();
+
+        filter("key-1", "{\"name\":\"Alex\"}", chain);
+        MockHttpServletResponse reused = filter("key-1", "{\"name\":\"Jamila\"}", chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void scopesKeysToMethodAndPath() throws Exception {
+        FilterChain chain = (req, res) -> executions.incrementAndGet();
+
+        filter("key-1", "{}", chain);
+        MockHttpServletRequest put = new MockHttpServletRequest("PUT", "/api/v1/customers/1");
+        put.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-1");
+        put.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        underTest.doFilter(put, new MockHttpServletResponse(), chain);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForFirstExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            res.getOutputStream().write("created".getBytes(StandardCharsets.UTF_8));
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> filterUnchecked(chain));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> filterUnchecked(chain));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("created");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("created");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void readListenersGetTheBufferedBody() throws Exception {
+        FilterChain chain = (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    res.getOutputStream().write(in.readAllBytes());
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    executions.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+        };
+
+        MockHttpServletResponse response = filter("key-1", "{\"name\":\"Alex\"}", chain);
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"name\":\"Alex\"}");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void passesThroughWithoutKey() throws Exception {
+        FilterChain chain = (req, res) -> executions.incrementAndGet();
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/customers");
+            request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+            underTest.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        assertThat(executions).hasValue(2);
+    }
+
+    private MockHttpServletResponse filterUnchecked(FilterChain chain) {
+        try {
+            return filter("key-1", "{}", chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse filter(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/customers");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, chain);
+        return response;
+    }
+}
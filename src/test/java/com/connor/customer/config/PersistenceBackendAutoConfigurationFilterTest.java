@@ -0,0 +1,42 @@
+package com.connor.customer.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistenceBackendAutoConfigurationFilterTest {
+
+    private static final String[] CANDIDATES = {
+            DataSourceAutoConfiguration.class.getName(),
+            HibernateJpaAutoConfiguration.class.getName(),
+            JpaRepositoriesAutoConfiguration.class.getName(),
+            null
+    };
+
+    @Test
+    void dropsJpaAutoConfigurationByDefault() {
+        assertThat(match(new MockEnvironment())).containsExactly(true, false, false, true);
+    }
+
+    @Test
+    void dropsJpaAutoConfigurationForJdbcBackend() {
+        assertThat(match(new MockEnvironment().withProperty(PersistenceBackendAutoConfigurationFilter.BACKEND, "jdbc")))
+                .containsExactly(true, false, false, true);
+    }
+
+    @Test
+    void keepsJpaAutoConfigurationForJpaBackend() {
+        assertThat(match(new MockEnvironment().withProperty(PersistenceBackendAutoConfigurationFilter.BACKEND, "jpa")))
+                .containsExactly(true, true, true, true);
+    }
+
+    private static boolean[] match(MockEnvironment environment) {
+        PersistenceBackendAutoConfigurationFilter filter = new PersistenceBackendAutoConfigurationFilter();
+        filter.setEnvironment(environment);
+        return filter.match(CANDIDATES, null);
+    }
+}
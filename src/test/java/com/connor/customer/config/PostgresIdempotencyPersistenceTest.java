@@ -0,0 +1,86 @@
+package com.connor.customer.config;
+
+import com.connor.AbstractTestContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two stores on one table stand in for two instances of the application
+class PostgresIdempotencyPersistenceTest extends AbstractTestContainer {
+
+    private static final IdempotentResponse CREATED = new IdempotentResponse(
+            "fingerprint", 201, null, Map.of("Location", "/api/v1/customers/1"), "{}".getBytes(StandardCharsets.UTF_8));
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private PostgresIdempotencyPersistence persistence;
+    private IdempotencyStore first;
+    private IdempotencyStore second;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        persistence = new PostgresIdempotencyPersistence(jdbcTemplate, Duration.ofHours(1), Duration.ofMinutes(1));
+        first = new IdempotencyStore(Duration.ofMinutes(1), 100, persistence);
+        second = new IdempotencyStore(Duration.ofMinutes(1), 100, persistence);
+        key = "POST /api/v1/customers " + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistence.close();
+    }
+
+    @Test
+    void otherInstanceWaitsForRunningRequest() throws Exception {
+        CompletableFuture<IdempotentResponse> running = new CompletableFuture<>();
+        assertThat(first.claim(key, running)).isNull();
+
+        CompletableFuture<IdempotentResponse> earlier = second.claim(key, new CompletableFuture<>());
+        assertThat(earlier).isNotNull().isNotDone();
+
+        first.complete(key, running, CREATED);
+
+        IdempotentResponse replayed = earlier.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.status()).isEqualTo(201);
+        assertThat(replayed.headers()).containsEntry("Location", "/api/v1/customers/1");
+    }
+
+    @Test
+    void otherInstanceRunsAfterServerError() throws Exception {
+        CompletableFuture<IdempotentResponse> running = new CompletableFuture<>();
+        assertThat(first.claim(key, running)).isNull();
+        CompletableFuture<IdempotentResponse> earlier = second.claim(key, new CompletableFuture<>());
+
+        first.complete(key, running, null);
+
+        assertThat(earlier.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(second.claim(key, new CompletableFuture<>())).isNull();
+    }
+
+    @Test
+    void expiredClaimCanBeTakenOver() {
+        assertThat(first.claim(key, new CompletableFuture<>())).isNull();
+        jdbcTemplate.update("UPDATE idempotency_key SET expires_at = now() WHERE key = ?", key);
+
+        assertThat(second.claim(key, new CompletableFuture<>())).isNull();
+    }
+
+    @Test
+    void firstStoredResponseWins() {
+        persistence.save(key, CREATED, Duration.ofMinutes(1));
+        persistence.save(key, new IdempotentResponse("other", 409, "taken", Map.of(), new byte[0]), Duration.ofMinutes(1));
+
+        assertThat(persistence.find(key)).hasValueSatisfying(stored -> assertThat(stored.status()).isEqualTo(201));
+        assertThat(second.claim(key, new CompletableFuture<>())).isCompletedWithValueMatching(stored -> stored.status() == 201);
+    }
+}
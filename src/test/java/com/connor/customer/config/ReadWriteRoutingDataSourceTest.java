@@ -0,0 +1,94 @@
+package com.connor.customer.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadWriteRoutingDataSource underTest;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.clearPrimaryRequirement();
+        underTest.close();
+    }
+
+    @Test
+    void routesWritesToPrimary() throws SQLException {
+        underTest = routing(replica(true), replica(true));
+
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void balancesReadOnlyTransactionsAcrossReplicas() throws SQLException {
+        underTest = routing(replica(true), replica(true));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo("replica-0");
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo("replica-1");
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void skipsUnhealthyReplicas() throws SQLException {
+        underTest = routing(replica(false), replica(true));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo("replica-1");
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo("replica-1");
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenNoReplicaIsHealthy() throws SQLException {
+        underTest = routing(replica(false));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void readsGoToPrimaryInsideReadYourWritesWindow() throws SQLException {
+        underTest = routing(replica(true));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.requirePrimary();
+
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    private static ReadWriteRoutingDataSource routing(DataSource... replicas) {
+        Map<String, DataSource> targets = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.length; i++) {
+            targets.put("replica-" + i, replicas[i]);
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(mock(DataSource.class), targets, Duration.ofHours(1));
+        routing.checkReplicas();
+        return routing;
+    }
+
+    private static DataSource replica(boolean healthy) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        if (healthy) {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(dataSource.getConnection()).thenReturn(connection);
+        } else {
+            when(dataSource.getConnection()).thenThrow(new SQLException("down"));
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,132 @@
+package com.connor.customer.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TracingDataSourceTest {
+
+    @Test
+    void recordsQueryTextBindsAndRowsFetchedWhenResultSetCloses() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        SlowQueryLog slowQueryLog = new SlowQueryLog(10);
+        DataSource underTest = new TracingDataSource(dataSourceReturning(resultSet, 0), slowQueryLog, Duration.ZERO);
+
+        try (Connection connection = underTest.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM customer WHERE id > ?")) {
+            statement.setLong(1, 10L);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    rows.getLong(1);
+                }
+                assertThat(slowQueryLog.entries()).isEmpty();
+            }
+        }
+
+        assertThat(slowQueryLog.entries()).singleElement().satisfies(slowQuery -> {
+            assertThat(slowQuery.sql()).isEqualTo("SELECT * FROM customer WHERE id > ?");
+            assertThat(slowQuery.bindCount()).isEqualTo(1);
+            assertThat(slowQuery.rows()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    void recordsRowsFetchedWhenStatementClosesTheResultSet() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        SlowQueryLog slowQueryLog = new SlowQueryLog(10);
+        DataSource underTest = new TracingDataSource(dataSourceReturning(resultSet, 0), slowQueryLog, Duration.ZERO);
+
+        try (Connection connection = underTest.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM customer")) {
+            ResultSet rows = statement.executeQuery();
+            rows.next();
+            rows.next();
+        }
+
+        assertThat(slowQueryLog.entries()).singleElement().satisfies(slowQuery -> assertThat(slowQuery.rows()).isEqualTo(1L));
+    }
+
+    @Test
+    void leavesResultSetOfFastQueriesUnwrapped() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        SlowQueryLog slowQueryLog = new SlowQueryLog(10);
+        DataSource underTest = new TracingDataSource(dataSourceReturning(resultSet, 0), slowQueryLog, Duration.ofHours(1));
+
+        try (Connection connection = underTest.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM customer")) {
+            assertThat(statement.executeQuery()).isSameAs(resultSet);
+        }
+
+        assertThat(slowQueryLog.entries()).isEmpty();
+    }
+
+    @Test
+    void recordsAffectedRowsForUpdates() throws Exception {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(10);
+        DataSource underTest = new TracingDataSource(dataSourceReturning(null, 3), slowQueryLog, Duration.ZERO);
+
+        try (Connection connection = underTest.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM customer WHERE age = ?")) {
+            statement.setInt(1, 30);
+            statement.executeUpdate();
+        }
+
+        assertThat(slowQueryLog.entries()).singleElement().satisfies(slowQuery -> {
+            assertThat(slowQuery.bindCount()).isEqualTo(1);
+            assertThat(slowQuery.rows()).isEqualTo(3L);
+        });
+    }
+
+    @Test
+    void ignoresStatementsUnderThreshold() throws Exception {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(10);
+        DataSource underTest = new TracingDataSource(dataSourceReturning(null, 1), slowQueryLog, Duration.ofHours(1));
+
+        try (Connection connection = underTest.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM customer")) {
+            statement.executeUpdate();
+        }
+
+        assertThat(slowQueryLog.entries()).isEmpty();
+    }
+
+    @Test
+    void ringBufferKeepsNewestEntries() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(2);
+        for (int i = 1; i <= 3; i++) {
+            slowQueryLog.add(new SlowQueryLog.SlowQuery(null, "q" + i, 0, 0, 0L, null));
+        }
+
+        assertThat(slowQueryLog.entries())
+                .extracting(SlowQueryLog.SlowQuery::sql)
+                .containsExactly("q3", "q2");
+    }
+
+    @Test
+    void ringBufferRejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new SlowQueryLog(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DataSource dataSourceReturning(ResultSet resultSet, int updateCount) throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(statement.executeUpdate()).thenReturn(updateCount);
+        return dataSource;
+    }
+}
@@ -0,0 +1,182 @@
+package com.connor.customer.config;
+
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ZstdCompressionFilterTest {
+
+    private static final String LARGE = "[" + "{\"name\":\"Alex\"},".repeat(100) + "{}]";
+
+    private final ZstdCompressionFilter underTest = new ZstdCompressionFilter(List.of(MediaType.APPLICATION_JSON), 64, 3);
+
+    @Test
+    void compressesLargeResponsesAndWeakensETag() throws Exception {
+        String body = "[" + "{\"name\":\"Alex\"},".repeat(100) + "{}]";
+        MockHttpServletResponse response = filter("zstd, gzip", body);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"1\"");
+        assertThat(response.getContentAsByteArray().length).isLessThan(body.length());
+        try (ZstdInputStream decoded = new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new String(decoded.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+        }
+    }
+
+    @Test
+    void leavesSmallResponsesUncompressed() throws Exception {
+        MockHttpServletResponse response = filter("zstd", "{}");
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+        assertThat(response.getContentLength()).isEqualTo(2);
+    }
+
+    @Test
+    void leavesResponsesAloneWithoutAcceptEncoding() throws Exception {
+        String body = "x".repeat(200);
+        MockHttpServletResponse response = filter("gzip", body);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(body);
+    }
+
+    @Test
+    void resetBufferDropsEncodedBytesAndEncoding() throws Exception {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(LARGE.getBytes(StandardCharsets.UTF_8));
+            res.resetBuffer();
+            res.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            res.getWriter().write("error");
+        });
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getContentAsString()).isEqualTo("error");
+    }
+
+    @Test
+    void resetStartsOverAndCompressesTheNewBody() throws Exception {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write("[{\"partial\":".repeat(20).getBytes(StandardCharsets.UTF_8));
+            res.reset();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(LARGE.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(decode(response)).isEqualTo(LARGE);
+    }
+
+    @Test
+    void finishesAsyncResponsesOnCompletion() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, (req, res) -> {
+            req.startAsync();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(LARGE.getBytes(StandardCharsets.UTF_8));
+        });
+        request.getAsyncContext().complete();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(decode(response)).isEqualTo(LARGE);
+    }
+
+    @Test
+    void nonBlockingWritersGetTheUnderlyingStream() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<WriteListener> registered = new ArrayList<>();
+        HttpServletResponse listening = new HttpServletResponseWrapper(response) {
+            @Override
+            public ServletOutputStream getOutputStream() throws IOException {
+                ServletOutputStream delegate = super.getOutputStream();
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        registered.add(writeListener);
+                    }
+                };
+            }
+        };
+        WriteListener listener = mock(WriteListener.class);
+        underTest.doFilter(request(), listening, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write("[".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().setWriteListener(listener);
+            res.getOutputStream().write(LARGE.substring(1).getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(registered).containsExactly(listener);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(LARGE);
+    }
+
+    @Test
+    void acceptsZstd() {
+        assertThat(ZstdCompressionFilter.acceptsZstd("gzip, zstd")).isTrue();
+        assertThat(ZstdCompressionFilter.acceptsZstd("zstd;q=0.5")).isTrue();
+        assertThat(ZstdCompressionFilter.acceptsZstd("zstd;q=0")).isFalse();
+        assertThat(ZstdCompressionFilter.acceptsZstd("gzip")).isFalse();
+        assertThat(ZstdCompressionFilter.acceptsZstd(null)).isFalse();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "zstd");
+        return request;
+    }
+
+    private static String decode(MockHttpServletResponse response) throws IOException {
+        try (ZstdInputStream decoded = new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private MockHttpServletResponse filter(String acceptEncoding, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"1\"");
+            res.setContentLength(body.length());
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        });
+        return response;
+    }
+}
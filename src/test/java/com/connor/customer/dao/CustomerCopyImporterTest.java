@@ -0,0 +1,131 @@
+package com.connor.customer.dao;
+
+import com.connor.AbstractTestContainer;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerFileFormat;
+import com.connor.customer.payload.CustomerImportResult;
+import com.connor.exception.RequestValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerCopyImporterTest extends AbstractTestContainer {
+
+    private CustomerCopyImporter underTest;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = getDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        underTest = new CustomerCopyImporter(jdbcTemplate, new ObjectMapper());
+    }
+
+    @Test
+    void importCustomersFromCsv() {
+        String first = "copy-" + UUID.randomUUID() + "@email.com";
+        String second = "copy-" + UUID.randomUUID() + "@email.com";
+        String csv = """
+                name,email,age
+                "Alex, Jr",%s,27
+                Connor,%s,28
+                Duplicate,%s,29
+                Missing Age,missing-%s,
+                """.formatted(first, second, first, UUID.randomUUID());
+
+        CustomerImportResult actual = importCustomers(CustomerFileFormat.CSV, csv);
+
+        assertThat(actual).isEqualTo(new CustomerImportResult(4, 2, 2));
+        assertThat(nameOf(first)).isEqualTo("Alex, Jr");
+        assertThat(nameOf(second)).isEqualTo("Connor");
+    }
+
+    @Test
+    void importCustomersFromExportedCsv() {
+        String email = "copy-" + UUID.randomUUID() + "@email.com";
+        String csv = """
+                id,name,email,age
+                42,Alex,%s,27
+                """.formatted(email);
+
+        CustomerImportResult actual = importCustomers(CustomerFileFormat.CSV, csv);
+
+        assertThat(actual).isEqualTo(new CustomerImportResult(1, 1, 0));
+        assertThat(nameOf(email)).isEqualTo("Alex");
+    }
+
+    @Test
+    void importTakesOneIdBlockPerFiftyRows() {
+        String prefix = "copy-" + UUID.randomUUID();
+        StringBuilder csv = new StringBuilder("name,email,age\n");
+        for (int i = 0; i < 120; i++) {
+            csv.append("Alex,").append(prefix).append('-').append(i).append("@email.com,27\n");
+        }
+        long before = lastSequenceValue();
+
+        CustomerImportResult actual = importCustomers(CustomerFileFormat.CSV, csv.toString());
+
+        assertThat(actual).isEqualTo(new CustomerImportResult(120, 120, 0));
+        assertThat(lastSequenceValue() - before).isEqualTo(3L * Customer.ID_ALLOCATION_SIZE);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT id) FROM customer WHERE email LIKE ?", Long.class, prefix + "%"))
+                .isEqualTo(120L);
+    }
+
+    @Test
+    void importCustomersFromNdjson() {
+        String email = "copy-" + UUID.randomUUID() + "@email.com";
+        String ndjson = """
+                {"name":"Alex","email":"%s","age":27}
+                {"name":"Bad Age","email":"bad-%s","age":"old"}
+                not json
+                """.formatted(email, UUID.randomUUID());
+
+        CustomerImportResult actual = importCustomers(CustomerFileFormat.NDJSON, ndjson);
+
+        assertThat(actual).isEqualTo(new CustomerImportResult(3, 1, 2));
+        assertThat(nameOf(email)).isEqualTo("Alex");
+    }
+
+    @Test
+    void willThrowWhenCsvHeaderIsInvalid() {
+        assertThatThrownBy(() -> importCustomers(CustomerFileFormat.CSV, "name,email,password\n"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid csv header column password");
+    }
+
+    @Test
+    void willThrowWhenNotInTransaction() {
+        assertThatThrownBy(() -> underTest.importCustomers(CustomerFileFormat.CSV, stream("name,email,age\n")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private CustomerImportResult importCustomers(CustomerFileFormat format, String content) {
+        return transactionTemplate.execute(status -> underTest.importCustomers(format, stream(content)));
+    }
+
+    private String nameOf(String email) {
+        return jdbcTemplate.queryForObject("SELECT name FROM customer WHERE email = ?", String.class, email);
+    }
+
+    private long lastSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM customer_id_seq", Long.class);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.connor.customer.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerIdAllocatorTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    private CustomerIdAllocator underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerIdAllocator(jdbcTemplate);
+    }
+
+    @Test
+    void allocatesFromPooledBlock() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(150L));
+
+        List<Long> first = underTest.allocate(3);
+        List<Long> second = underTest.allocate(47);
+
+        assertThat(first).containsExactly(101L, 102L, 103L);
+        assertThat(second).containsExactlyElementsOf(LongStream.rangeClosed(104, 150).boxed().toList());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), eq(1));
+    }
+
+    @Test
+    void fetchesEveryMissingBlockInOneQuery() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(3))).thenReturn(List.of(100L, 200L, 250L));
+
+        List<Long> actual = underTest.allocate(120);
+
+        assertThat(actual).hasSize(120).doesNotHaveDuplicates();
+        assertThat(actual.subList(0, 50)).containsExactlyElementsOf(LongStream.rangeClosed(51, 100).boxed().toList());
+        assertThat(actual.subList(50, 100)).containsExactlyElementsOf(LongStream.rangeClosed(151, 200).boxed().toList());
+        assertThat(actual.subList(100, 120)).containsExactlyElementsOf(LongStream.rangeClosed(201, 220).boxed().toList());
+    }
+
+    @Test
+    void firstSequenceValueIsItsOwnBlock() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(1L), List.of(51L));
+
+        List<Long> actual = underTest.allocate(3);
+
+        assertThat(actual).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void pollsCurrentBlockWithoutQuerying() {
+        assertThat(underTest.poll()).isNull();
+
+        assertThat(underTest.startBlock(150L)).isEqualTo(101L);
+        assertThat(underTest.poll()).isEqualTo(102L);
+        assertThat(underTest.allocate()).isEqualTo(103L);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void fetchesNextvalWithoutHoldingTheLock() {
+        // poll() needs the lock, so from another thread it only returns in time if the query runs without it
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenAnswer(invocation -> {
+            assertThat(CompletableFuture.supplyAsync(underTest::poll).get(1, TimeUnit.SECONDS)).isNull();
+            return List.of(150L);
+        });
+
+        assertThat(underTest.allocate(2)).containsExactly(101L, 102L);
+    }
+
+    @Test
+    void otherCallersFetchWhileOneIsWaitingOnTheDatabase() throws Exception {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(150L), List.of(300L));
+        underTest.allocate(1);
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenAnswer(invocation -> {
+            fetching.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of(200L, 250L);
+        });
+
+        CompletableFuture<List<Long>> bulk = CompletableFuture.supplyAsync(() -> underTest.allocate(100));
+        assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Long> single = underTest.allocate(3);
+        release.countDown();
+
+        // the bulk caller took the rest of the first block, so the single one fetched its own rather than waiting
+        assertThat(single).containsExactly(251L, 252L, 253L);
+        assertThat(bulk.get(5, TimeUnit.SECONDS)).hasSize(100).doesNotHaveDuplicates().doesNotContainAnyElementsOf(single);
+        // leftovers are handed out in the order they were published
+        assertThat(underTest.allocate(2)).containsExactly(254L, 255L);
+    }
+}
@@ -1,17 +1,33 @@
 package com.connor.customer.dao;
 
 import com.connor.AbstractTestContainer;
-import com.connor.customer.dao.CustomerJBDCDataAccessService;
+import com.connor.customer.business.CustomerService;
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import com.connor.customer.payload.CustomerView;
 import com.connor.customer.utils.CustomerRowMapper;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.PreconditionFailedException;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
 
@@ -22,9 +38,12 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
 
     @BeforeEach
     void setUp() {
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
         underTest = new CustomerJBDCDataAccessService(
-                getJdbcTemplate(),
-                customerRowMapper
+                jdbcTemplate,
+                customerRowMapper,
+                new CustomerIdAllocator(jdbcTemplate),
+                new CustomerJsonStreamer(jdbcTemplate, new ObjectMapper())
         );
         email = faker.internet().safeEmailAddress() + "-" + UUID.randomUUID();
         customer = new Customer(
@@ -33,37 +52,56 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
                 faker.number().numberBetween(18, 99)
         );
         underTest.insertCustomer(customer);
+        assertThat(customer.getId()).isNotNull();
     }
 
     @Test
     void selectAllCustomers() {
-        List<Customer> actual = underTest.selectAllCustomers();
+        List<CustomerView> actual = underTest.selectAllCustomers();
         assertThat(actual).isNotEmpty();
     }
 
+    @Test
+    void selectCustomersAfterId() {
+        List<CustomerView> firstPage = underTest.selectCustomersAfterId(0L, 2);
+        assertThat(firstPage).isNotEmpty().hasSizeLessThanOrEqualTo(2);
+        assertThat(firstPage).extracting(CustomerView::id).isSorted();
+
+        Long lastId = firstPage.get(firstPage.size() - 1).id();
+        List<CustomerView> nextPage = underTest.selectCustomersAfterId(lastId, 2);
+        assertThat(nextPage).allSatisfy(c -> assertThat(c.id()).isGreaterThan(lastId));
+    }
+
+    @Test
+    void streamAllCustomers() {
+        try (Stream<CustomerView> actual = underTest.streamAllCustomers()) {
+            assertThat(actual).anyMatch(c -> c.email().equals(email));
+        }
+    }
+
     @Test
     void selectCustomerById() {
         Long id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
 
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(customer.getName());
-            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
-            assertThat(c.getAge()).isEqualTo(customer.getAge());
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.email()).isEqualTo(customer.getEmail());
+            assertThat(c.age()).isEqualTo(customer.getAge());
         });
     }
 
     @Test
     void willReturnEmptyWhenSelectByCustomerId() {
         Long id = -1L;
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerView> actual = underTest.selectCustomerById(id);
         assertThat(actual).isEmpty();
     }
 
@@ -71,8 +109,8 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
     void insertCustomer() {
         Long id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
@@ -83,6 +121,40 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
         assertThat(actualId).isTrue();
     }
 
+    @Test
+    void insertCustomers() {
+        List<Customer> customers = List.of(
+                new Customer(faker.name().fullName(), "bulk-" + UUID.randomUUID() + "@email.com", 30),
+                new Customer(faker.name().fullName(), "bulk-" + UUID.randomUUID() + "@email.com", 31),
+                new Customer(faker.name().fullName(), "bulk-" + UUID.randomUUID() + "@email.com", 32)
+        );
+
+        underTest.insertCustomers(customers, 2);
+
+        assertThat(customers).extracting(Customer::getId).doesNotContainNull().doesNotHaveDuplicates();
+        List<String> emails = customers.stream().map(Customer::getEmail).toList();
+        assertThat(underTest.selectExistingEmails(emails)).containsExactlyInAnyOrderElementsOf(emails);
+    }
+
+    @Test
+    void insertCustomersSkipsTakenEmails() {
+        Customer taken = new Customer(faker.name().fullName(), email, 30);
+        Customer fresh = new Customer(faker.name().fullName(), "bulk-" + UUID.randomUUID() + "@email.com", 31);
+
+        Set<String> actual = underTest.insertCustomers(List.of(taken, fresh), 10);
+
+        assertThat(actual).containsExactly(email);
+        assertThat(taken.getId()).isNull();
+        assertThat(fresh.getId()).isNotNull();
+        assertThat(underTest.existCustomerWithId(fresh.getId())).isTrue();
+    }
+
+    @Test
+    void selectExistingEmails() {
+        Set<String> actual = underTest.selectExistingEmails(List.of(email, "does-not-exist@email.com"));
+        assertThat(actual).containsExactly(email);
+    }
+
     @Test
     void existNoCustomerWithEmail() {
         boolean actual = underTest.existCustomerWithEmail("does-not-exist@email.com");
@@ -99,8 +171,8 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
     void existCustomerWithId() {
         Long id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
@@ -118,8 +190,8 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
     void deleteCustomer() {
         Long id = underTest.selectAllCustomers()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
         boolean actual = underTest.existCustomerWithId(id);
@@ -129,21 +201,221 @@ class CustomerJBDCDataAccessServiceTest extends AbstractTestContainer {
         assertThat(actual).isFalse();
     }
 
+    @Test
+    void willThrowWhenEmailTakenInsertCustomer() {
+        Customer duplicate = new Customer(faker.name().fullName(), email, 30);
+
+        assertThatThrownBy(() -> underTest.insertCustomer(duplicate))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("Customer with email already exist");
+    }
+
+    @Test
+    void willThrowWhenNoDeleteCustomer() {
+        assertThatThrownBy(() -> underTest.deleteCustomer(-1L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer could not be found");
+    }
+
     @Test
     void updateCustomer() {
-        customer.setName("New Guy");
-        customer.setEmail("new-email@email.com");
-        underTest.updateCustomer(customer);
+        String newEmail = "new-email-" + UUID.randomUUID() + "@email.com";
+        Customer changes = new Customer("New Guy", newEmail, null);
+        changes.setId(customer.getId());
+
+        CustomerView actual = underTest.updateCustomer(changes);
+
+        assertThat(actual.id()).isEqualTo(customer.getId());
+        assertThat(actual.name()).isEqualTo("New Guy");
+        assertThat(actual.email()).isEqualTo(newEmail);
+        assertThat(actual.age()).isEqualTo(customer.getAge());
+        assertThat(underTest.selectCustomerById(customer.getId())).contains(actual);
+    }
+
+    @Test
+    void updateCustomerBumpsVersion() {
+        Long before = underTest.selectCustomerVersion(customer.getId()).orElseThrow();
+        Customer changes = new Customer("Versioned", null, null);
+        changes.setId(customer.getId());
+        changes.setVersion(before);
+
+        CustomerView actual = underTest.updateCustomer(changes);
+
+        assertThat(actual.version()).isEqualTo(before + 1);
+        assertThat(underTest.selectCustomerVersion(customer.getId())).contains(before + 1);
+    }
 
-        Optional<Customer> actual = underTest.selectAllCustomers()
+    @Test
+    void willThrowWhenVersionChangedUpdateCustomer() {
+        Long current = underTest.selectCustomerVersion(customer.getId()).orElseThrow();
+        Customer changes = new Customer("Stale", null, null);
+        changes.setId(customer.getId());
+        changes.setVersion(current + 1);
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Customer has been modified");
+    }
+
+    @Test
+    void selectCustomerVersionOfMissingCustomerIsEmpty() {
+        assertThat(underTest.selectCustomerVersion(-1L)).isEmpty();
+    }
+
+    @Test
+    void pageFingerprintMatchesServiceFingerprint() {
+        Long after = customer.getId() - 1;
+        List<CustomerView> rows = underTest.selectCustomersAfterId(after, 2);
+        CustomerPage page = rows.size() > 1
+                ? new CustomerPage(rows.subList(0, 1), rows.get(0).id())
+                : new CustomerPage(rows, null);
+
+        assertThat(underTest.selectCustomerPageFingerprint(after, 1)).isEqualTo(CustomerService.fingerprint(page));
+    }
+
+    @Test
+    void willThrowWhenNoChangesUpdateCustomer() {
+        Customer changes = new Customer(customer.getName(), customer.getEmail(), customer.getAge());
+        changes.setId(customer.getId());
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("no changes found");
+    }
+
+    @Test
+    void willThrowWhenNotFoundUpdateCustomer() {
+        Customer changes = new Customer("New Guy", null, null);
+        changes.setId(-1L);
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer could not be found");
+    }
+
+    @Test
+    void willThrowWhenEmailTakenUpdateCustomer() {
+        Customer other = new Customer(faker.name().fullName(), "other-" + UUID.randomUUID() + "@email.com", 30);
+        underTest.insertCustomer(other);
+        Customer changes = new Customer(null, other.getEmail(), null);
+        changes.setId(customer.getId());
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("Email is already taken");
+    }
+
+    @Test
+    void searchCustomersBySubstringAndTypo() {
+        Customer searched = new Customer("Wilhelmina Zybrowski", "search-" + UUID.randomUUID() + "@email.com", 41);
+        underTest.insertCustomer(searched);
+
+        List<CustomerView> bySubstring = underTest.searchCustomers(
+                new CustomerSearchCriteria("lmina zyb", null, null, null, CustomerSearchSort.ID, 50));
+        List<CustomerView> byTypo = underTest.searchCustomers(
+                new CustomerSearchCriteria("Zybrowsky", null, null, null, CustomerSearchSort.RELEVANCE, 50));
+
+        assertThat(bySubstring).extracting(CustomerView::id).contains(searched.getId());
+        assertThat(byTypo).extracting(CustomerView::id).contains(searched.getId());
+    }
+
+    @Test
+    void searchCustomersByEmailPrefixAndAgeRange() {
+        String prefix = "prefix-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer("Young", prefix + "-young@email.com", 20));
+        underTest.insertCustomer(new Customer("Old", prefix + "-old@email.com", 70));
+
+        List<CustomerView> actual = underTest.searchCustomers(
+                new CustomerSearchCriteria(null, prefix.toUpperCase(), 18, 30, CustomerSearchSort.AGE, 50));
+
+        assertThat(actual).extracting(CustomerView::email).containsExactly(prefix + "-young@email.com");
+    }
+
+    @Test
+    void searchCustomersTreatsLikeWildcardsLiterally() {
+        List<CustomerView> actual = underTest.searchCustomers(
+                new CustomerSearchCriteria(null, "%", null, null, CustomerSearchSort.ID, 50));
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void nameSearchUsesTrigramIndex() {
+        assertThat(explain(new CustomerSearchCriteria("Zybrowsky", null, null, null, CustomerSearchSort.RELEVANCE, 50)))
+                .contains("customer_name_trgm_idx");
+    }
+
+    @Test
+    void emailPrefixSearchUsesPatternIndex() {
+        assertThat(explain(new CustomerSearchCriteria(null, "alex", null, null, CustomerSearchSort.ID, 50)))
+                .contains("customer_email_lower_pattern_idx");
+    }
+
+    @Test
+    void ageRangeSearchUsesAgeIndex() {
+        assertThat(explain(new CustomerSearchCriteria(null, null, 30, 40, CustomerSearchSort.AGE, 50)))
+                .contains("customer_age_id_idx");
+    }
+
+    @Test
+    void ageCountsFollowInsertUpdateAndDelete() {
+        // ages outside anything faker generates so other tests' rows do not interfere
+        Customer first = new Customer("Stats One", "stats-" + UUID.randomUUID() + "@email.com", 150);
+        Customer second = new Customer("Stats Two", "stats-" + UUID.randomUUID() + "@email.com", 150);
+        underTest.insertCustomers(new ArrayList<>(List.of(first, second)), 10);
+        assertThat(ageCount(150)).isEqualTo(2);
+
+        Customer moved = new Customer(null, null, 151);
+        moved.setId(first.getId());
+        underTest.updateCustomer(moved);
+        assertThat(ageCount(150)).isEqualTo(1);
+        assertThat(ageCount(151)).isEqualTo(1);
+
+        Customer renamed = new Customer("Stats Two Renamed", null, null);
+        renamed.setId(second.getId());
+        underTest.updateCustomer(renamed);
+        assertThat(ageCount(150)).isEqualTo(1);
+
+        underTest.deleteCustomer(first.getId());
+        underTest.deleteCustomer(second.getId());
+        assertThat(ageCount(150)).isZero();
+        assertThat(ageCount(151)).isZero();
+    }
+
+    @Test
+    void ageCountsMatchCustomerTable() {
+        List<CustomerAgeCount> expected = getJdbcTemplate().query(
+                "SELECT age, count(*) AS customers FROM customer GROUP BY age ORDER BY age",
+                (rs, rowNum) -> new CustomerAgeCount(rs.getInt("age"), rs.getLong("customers")));
+
+        assertThat(underTest.selectAgeCounts()).isEqualTo(expected);
+    }
+
+    private long ageCount(int age) {
+        return underTest.selectAgeCounts()
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .findFirst();
+                .filter(c -> c.age() == age)
+                .mapToLong(CustomerAgeCount::customers)
+                .sum();
+    }
 
-        assertThat(actual).isPresent().hasValueSatisfying(c -> {
-           assertThat(actual.get().getName()).isNotEqualTo(customer.getName());
-           assertThat(actual.get().getEmail()).isNotEqualTo(customer.getEmail());
-           assertThat(actual.get().getAge()).isEqualTo(customer.getAge());
-        });
+    // The test table is far too small for the planner to prefer an index on its own, so sequential
+    // and plain index scans are switched off for the session: whatever is left has to be driven by
+    // an index that matches the search predicates.
+    private String explain(CustomerSearchCriteria criteria) {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                postgreSQLContainer.getJdbcUrl(),
+                postgreSQLContainer.getUsername(),
+                postgreSQLContainer.getPassword(),
+                true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("SET enable_seqscan = off");
+            jdbcTemplate.execute("SET enable_indexscan = off");
+            CustomerSearchSql search = CustomerSearchSql.of(criteria);
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN " + search.sql(), String.class, search.parameters().toArray()));
+        } finally {
+            dataSource.destroy();
+        }
     }
 }
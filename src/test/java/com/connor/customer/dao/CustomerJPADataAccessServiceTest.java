@@ -2,36 +2,110 @@ package com.connor.customer.dao;
 
 import com.connor.AbstractTestContainer;
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerAgeCount;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.DuplicateResourceException;
+import com.connor.exception.PreconditionFailedException;
+import com.connor.exception.RequestValidationException;
+import com.connor.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class CustomerJPADataAccessServiceTest extends AbstractTestContainer {
 
     private CustomerJPADataAccessService underTest;
     @Mock private CustomerRepository customerRepository;
+    @Mock private CustomerIdAllocator customerIdAllocator;
+    @Mock private CustomerJsonStreamer customerJsonStreamer;
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerJPADataAccessService(customerRepository);
+        underTest = new CustomerJPADataAccessService(customerRepository, customerIdAllocator, customerJsonStreamer);
     }
 
     @Test
     void selectAllCustomers() {
         underTest.selectAllCustomers();
-        verify(customerRepository).findAll();
+        verify(customerRepository).findAllViews();
+    }
+
+    @Test
+    void selectCustomersAfterId() {
+        Long afterId = 10L;
+        underTest.selectCustomersAfterId(afterId, 5);
+        verify(customerRepository).findViewsByIdGreaterThan(afterId, PageRequest.ofSize(5));
+    }
+
+    @Test
+    void writeCustomerPageWritesViewsFromRepository() {
+        List<CustomerView> views = List.of(new CustomerView(11L, "Alex", "alex@gmail.com", 27, 0L));
+        OutputStream outputStream = new ByteArrayOutputStream();
+        when(customerRepository.findViewsByIdGreaterThan(10L, PageRequest.ofSize(6))).thenReturn(views);
+        when(customerJsonStreamer.writeCustomerPage(views, 5, outputStream)).thenReturn("fingerprint");
+
+        assertThat(underTest.writeCustomerPage(10L, 5, outputStream)).isEqualTo("fingerprint");
+    }
+
+    @Test
+    void writeCustomersWritesSearchResultsFromRepository() {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("Alex", null, null, null, CustomerSearchSort.RELEVANCE, 10);
+        List<CustomerView> views = List.of(new CustomerView(11L, "Alex", "alex@gmail.com", 27, 0L));
+        OutputStream outputStream = new ByteArrayOutputStream();
+        when(customerRepository.searchCustomers(criteria)).thenReturn(views);
+
+        underTest.writeCustomers(criteria, outputStream);
+
+        verify(customerJsonStreamer).writeCustomers(views, outputStream);
+    }
+
+    @Test
+    void streamAllCustomers() {
+        underTest.streamAllCustomers();
+        verify(customerRepository).streamAllViews();
+    }
+
+    @Test
+    void searchCustomers() {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("Alex", null, 18, null, CustomerSearchSort.NAME, 10);
+        underTest.searchCustomers(criteria);
+        verify(customerRepository).searchCustomers(criteria);
+    }
+
+    @Test
+    void selectAgeCounts() {
+        when(customerRepository.findAgeCounts()).thenReturn(List.<Object[]>of(new Object[]{18, 3L}, new Object[]{21, 1L}));
+
+        List<CustomerAgeCount> actual = underTest.selectAgeCounts();
+
+        assertThat(actual).containsExactly(new CustomerAgeCount(18, 3), new CustomerAgeCount(21, 1));
     }
 
     @Test
     void selectCustomerById() {
         Long id = 1L;
         underTest.selectCustomerById(id);
-        verify(customerRepository).findById(id);
+        verify(customerRepository).findViewById(id);
     }
 
     @Test
@@ -41,8 +115,57 @@ class CustomerJPADataAccessServiceTest extends AbstractTestContainer {
                 faker.internet().safeEmailAddress(),
                 faker.number().numberBetween(18, 99)
         );
+        when(customerIdAllocator.allocate()).thenReturn(1L);
+        when(customerRepository.insertCustomerIfEmailAbsent(1L, customer.getName(), customer.getEmail(), customer.getAge()))
+                .thenReturn(Optional.of(1L));
+
         underTest.insertCustomer(customer);
-        verify(customerRepository).save(customer);
+
+        assertThat(customer.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void willThrowWhenEmailTakenInsertCustomer() {
+        Customer customer = new Customer(
+                faker.name().fullName(),
+                faker.internet().safeEmailAddress(),
+                faker.number().numberBetween(18, 99)
+        );
+        when(customerIdAllocator.allocate()).thenReturn(1L);
+        when(customerRepository.insertCustomerIfEmailAbsent(1L, customer.getName(), customer.getEmail(), customer.getAge()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.insertCustomer(customer))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("Customer with email already exist");
+    }
+
+    @Test
+    void insertCustomers() {
+        List<Customer> customers = List.of(
+                new Customer("Alex", "alex@gmail.com", 27),
+                new Customer("Jamila", "jamila@gmail.com", 22),
+                new Customer("Connor", "connor@gmail.com", 28)
+        );
+        when(customerIdAllocator.allocate(3)).thenReturn(List.of(1L, 2L, 3L));
+        when(customerRepository.insertCustomersIfEmailAbsent(
+                new Long[]{1L, 2L}, new String[]{"Alex", "Jamila"}, new String[]{"alex@gmail.com", "jamila@gmail.com"}, new Integer[]{27, 22}))
+                .thenReturn(List.of("alex@gmail.com"));
+        when(customerRepository.insertCustomersIfEmailAbsent(
+                new Long[]{3L}, new String[]{"Connor"}, new String[]{"connor@gmail.com"}, new Integer[]{28}))
+                .thenReturn(List.of("connor@gmail.com"));
+
+        Set<String> actual = underTest.insertCustomers(customers, 2);
+
+        assertThat(actual).containsExactly("jamila@gmail.com");
+        assertThat(customers).extracting(Customer::getId).containsExactly(1L, null, 3L);
+    }
+
+    @Test
+    void selectExistingEmails() {
+        List<String> emails = List.of(faker.internet().safeEmailAddress());
+        underTest.selectExistingEmails(emails);
+        verify(customerRepository).findEmailsByEmailIn(emails);
     }
 
     @Test
@@ -62,18 +185,80 @@ class CustomerJPADataAccessServiceTest extends AbstractTestContainer {
     @Test
     void deleteCustomer() {
         Long id = 1L;
+        when(customerRepository.deleteCustomerById(id)).thenReturn(1);
         underTest.deleteCustomer(id);
-        verify(customerRepository).deleteById(id);
+        verify(customerRepository).deleteCustomerById(id);
+    }
+
+    @Test
+    void willThrowWhenNoDeleteCustomer() {
+        Long id = 1L;
+        when(customerRepository.deleteCustomerById(id)).thenReturn(0);
+
+        assertThatThrownBy(() -> underTest.deleteCustomer(id))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer could not be found");
     }
 
     @Test
     void updateCustomer() {
-        Customer customer = new Customer(
-                faker.name().fullName(),
-                faker.internet().safeEmailAddress(),
-                faker.number().numberBetween(18, 99)
-        );
-        underTest.updateCustomer(customer);
-        verify(customerRepository).save(customer);
+        Customer changes = new Customer("New Name", null, null);
+        changes.setId(1L);
+        List<Object[]> updated = List.<Object[]>of(new Object[]{1L, "New Name", "alex@gmail.com", 27, 1L});
+        when(customerRepository.updateCustomerIfChanged(1L, "New Name", null, null, null)).thenReturn(updated);
+
+        CustomerView actual = underTest.updateCustomer(changes);
+
+        assertThat(actual).isEqualTo(new CustomerView(1L, "New Name", "alex@gmail.com", 27, 1L));
+        verify(customerRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void willThrowWhenNotFoundUpdateCustomer() {
+        Customer changes = new Customer("New Name", null, null);
+        changes.setId(1L);
+        when(customerRepository.updateCustomerIfChanged(1L, "New Name", null, null, null)).thenReturn(List.of());
+        when(customerRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer could not be found");
+    }
+
+    @Test
+    void willThrowWhenNoChangesUpdateCustomer() {
+        Customer changes = new Customer("Same Name", null, null);
+        changes.setId(1L);
+        when(customerRepository.updateCustomerIfChanged(1L, "Same Name", null, null, null)).thenReturn(List.of());
+        when(customerRepository.findVersionById(1L)).thenReturn(Optional.of(0L));
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("no changes found");
+    }
+
+    @Test
+    void willThrowWhenVersionChangedUpdateCustomer() {
+        Customer changes = new Customer("New Name", null, null);
+        changes.setId(1L);
+        changes.setVersion(1L);
+        when(customerRepository.updateCustomerIfChanged(1L, "New Name", null, null, 1L)).thenReturn(List.of());
+        when(customerRepository.findVersionById(1L)).thenReturn(Optional.of(2L));
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Customer has been modified");
+    }
+
+    @Test
+    void willThrowWhenEmailTakenUpdateCustomer() {
+        Customer changes = new Customer(null, "taken@gmail.com", null);
+        changes.setId(1L);
+        when(customerRepository.updateCustomerIfChanged(1L, null, "taken@gmail.com", null, null))
+                .thenThrow(new DataIntegrityViolationException("customer_email_unique"));
+
+        assertThatThrownBy(() -> underTest.updateCustomer(changes))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("Email is already taken");
     }
 }
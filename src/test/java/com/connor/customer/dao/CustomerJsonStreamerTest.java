@@ -0,0 +1,135 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.business.CustomerService;
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.io.ByteArrayOutputStream;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerJsonStreamerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final List<CustomerView> customers = List.of(
+            customer(11L, "Alex", "alex@gmail.com", 27, 0L),
+            customer(12L, "Zoë \"Z\" O'Brien", "zoe@gmail.com", 31, 3L),
+            customer(13L, "Jamila", "jamila@gmail.com", 29, 1L));
+
+    @Test
+    void pageMatchesJacksonOutputAndFingerprint() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String fingerprint;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            fingerprint = CustomerJsonStreamer.writePage(resultSet(customers), 2, generator);
+        }
+
+        CustomerPage expected = new CustomerPage(customers.subList(0, 2), 12L);
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(expected));
+        assertThat(fingerprint).isEqualTo(CustomerService.fingerprint(expected));
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String fingerprint;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            fingerprint = CustomerJsonStreamer.writePage(resultSet(customers), 3, generator);
+        }
+
+        CustomerPage expected = new CustomerPage(customers, null);
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(expected));
+        assertThat(fingerprint).isEqualTo(CustomerService.fingerprint(expected));
+    }
+
+    @Test
+    void emptyPage() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String fingerprint;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            fingerprint = CustomerJsonStreamer.writePage(resultSet(List.of()), 50, generator);
+        }
+
+        CustomerPage expected = new CustomerPage(List.of(), null);
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(expected));
+        assertThat(fingerprint).isEqualTo(CustomerService.fingerprint(expected));
+    }
+
+    @Test
+    void pageFromMappedViewsMatchesJacksonOutputAndFingerprint() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String fingerprint;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            fingerprint = CustomerJsonStreamer.writePage(customers, 2, generator);
+        }
+
+        CustomerPage expected = new CustomerPage(customers.subList(0, 2), 12L);
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(expected));
+        assertThat(fingerprint).isEqualTo(CustomerService.fingerprint(expected));
+    }
+
+    @Test
+    void searchFromMappedViewsMatchesJacksonOutput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CustomerJsonStreamer(null, objectMapper).writeCustomers(customers, out);
+
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(customers));
+    }
+
+    @Test
+    void customerMatchesJacksonOutput() throws Exception {
+        CachedRowSet resultSet = resultSet(customers.subList(1, 2));
+        resultSet.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            assertThat(CustomerJsonStreamer.writeCustomer(resultSet, generator)).isEqualTo(12L);
+        }
+
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(customers.get(1)));
+    }
+
+    private static CustomerView customer(long id, String name, String email, int age, long version) {
+        return new CustomerView(id, name, email, age, version);
+    }
+
+    private static CachedRowSet resultSet(List<CustomerView> customers) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(5);
+        metaData.setColumnName(1, "id");
+        metaData.setColumnType(1, Types.BIGINT);
+        metaData.setColumnName(2, "name");
+        metaData.setColumnType(2, Types.VARCHAR);
+        metaData.setColumnName(3, "email");
+        metaData.setColumnType(3, Types.VARCHAR);
+        metaData.setColumnName(4, "age");
+        metaData.setColumnType(4, Types.INTEGER);
+        metaData.setColumnName(5, "version");
+        metaData.setColumnType(5, Types.BIGINT);
+
+        CachedRowSet resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        for (CustomerView customer : customers) {
+            resultSet.moveToInsertRow();
+            resultSet.updateLong(1, customer.id());
+            resultSet.updateString(2, customer.name());
+            resultSet.updateString(3, customer.email());
+            resultSet.updateInt(4, customer.age());
+            resultSet.updateLong(5, customer.version());
+            resultSet.insertRow();
+        }
+        resultSet.moveToCurrentRow();
+        resultSet.beforeFirst();
+        return resultSet;
+    }
+}
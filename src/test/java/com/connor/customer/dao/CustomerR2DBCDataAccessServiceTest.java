@@ -0,0 +1,112 @@
+package com.connor.customer.dao;
+
+import com.connor.AbstractTestContainer;
+import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.DuplicateResourceException;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerR2DBCDataAccessServiceTest extends AbstractTestContainer {
+
+    private CustomerR2DBCDataAccessService underTest;
+    private String email;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerR2DBCDataAccessService(DatabaseClient.create(ConnectionFactories.get(
+                ConnectionFactoryOptions.builder()
+                        .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                        .option(ConnectionFactoryOptions.HOST, postgreSQLContainer.getHost())
+                        .option(ConnectionFactoryOptions.PORT, postgreSQLContainer.getFirstMappedPort())
+                        .option(ConnectionFactoryOptions.DATABASE, postgreSQLContainer.getDatabaseName())
+                        .option(ConnectionFactoryOptions.USER, postgreSQLContainer.getUsername())
+                        .option(ConnectionFactoryOptions.PASSWORD, postgreSQLContainer.getPassword())
+                        .build())),
+                new CustomerIdAllocator(getJdbcTemplate()));
+        email = faker.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customer = new Customer(
+                faker.name().fullName(),
+                email,
+                faker.number().numberBetween(18, 99)
+        );
+        StepVerifier.create(underTest.insertCustomer(customer))
+                .expectNext(customer)
+                .verifyComplete();
+        assertThat(customer.getId()).isNotNull();
+    }
+
+    @Test
+    void selectCustomersFromStart() {
+        StepVerifier.create(underTest.selectCustomersAfterId(0L, 1000).collectList())
+                .assertNext(actual -> {
+                    assertThat(actual).isNotEmpty().hasSizeLessThanOrEqualTo(1000);
+                    assertThat(actual).extracting(CustomerView::id).isSorted();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void selectCustomersAfterId() {
+        Long lastId = customer.getId() - 1;
+
+        StepVerifier.create(underTest.selectCustomersAfterId(lastId, 1))
+                .assertNext(c -> assertThat(c.id()).isEqualTo(customer.getId()))
+                .verifyComplete();
+        StepVerifier.create(underTest.selectCustomersAfterId(customer.getId(), 2))
+                .thenConsumeWhile(c -> c.id() > customer.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    void selectCustomerById() {
+        StepVerifier.create(underTest.selectCustomerById(customer.getId()))
+                .assertNext(c -> {
+                    assertThat(c.id()).isEqualTo(customer.getId());
+                    assertThat(c.name()).isEqualTo(customer.getName());
+                    assertThat(c.email()).isEqualTo(email);
+                    assertThat(c.age()).isEqualTo(customer.getAge());
+                    assertThat(c.version()).isZero();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void willReturnEmptyWhenSelectByCustomerId() {
+        StepVerifier.create(underTest.selectCustomerById(-1L)).verifyComplete();
+    }
+
+    @Test
+    void insertCustomer() {
+        Customer another = new Customer(
+                faker.name().fullName(),
+                faker.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                faker.number().numberBetween(18, 99)
+        );
+
+        StepVerifier.create(underTest.insertCustomer(another))
+                .assertNext(inserted -> assertThat(inserted.getId()).isGreaterThan(customer.getId()))
+                .verifyComplete();
+        StepVerifier.create(underTest.existCustomerWithId(another.getId()))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void insertCustomerWithTakenEmailThrows() {
+        StepVerifier.create(underTest.insertCustomer(new Customer("Alex", email, 27)))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(DuplicateResourceException.class)
+                        .hasMessage("Customer with email already exist"))
+                .verify();
+    }
+}
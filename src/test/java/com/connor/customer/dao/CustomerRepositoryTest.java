@@ -3,17 +3,23 @@ package com.connor.customer.dao;
 import com.connor.AbstractTestContainer;
 import com.connor.customer.dao.CustomerRepository;
 import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import com.connor.customer.payload.CustomerView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "customer.persistence.backend=jpa")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class CustomerRepositoryTest extends AbstractTestContainer {
 
@@ -50,4 +56,64 @@ class CustomerRepositoryTest extends AbstractTestContainer {
         boolean actual = underTest.existsCustomerById(id);
         assertThat(actual).isTrue();
     }
+
+    @Test
+    void findViewsByIdGreaterThan() {
+        List<CustomerView> actual = underTest.findViewsByIdGreaterThan(0L, PageRequest.ofSize(10));
+        assertThat(actual).isNotEmpty().hasSizeLessThanOrEqualTo(10);
+        assertThat(actual).extracting(CustomerView::id).isSorted();
+    }
+
+    @Test
+    void searchCustomers() {
+        List<CustomerView> actual = underTest.searchCustomers(
+                new CustomerSearchCriteria(null, email, null, null, CustomerSearchSort.ID, 10));
+        assertThat(actual).extracting(CustomerView::email).containsExactly(email);
+    }
+
+    @Test
+    void insertCustomerIfEmailAbsent() {
+        String newEmail = faker.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+
+        List<Long> ids = new CustomerIdAllocator(getJdbcTemplate()).allocate(2);
+
+        Optional<Long> inserted = underTest.insertCustomerIfEmailAbsent(ids.get(0), "New Guy", newEmail, 30);
+        Optional<Long> duplicate = underTest.insertCustomerIfEmailAbsent(ids.get(1), "New Guy", newEmail, 30);
+
+        assertThat(inserted).hasValue(ids.get(0));
+        assertThat(duplicate).isEmpty();
+    }
+
+    @Test
+    void deleteCustomerById() {
+        Long id = idOf(email);
+
+        assertThat(underTest.deleteCustomerById(id)).isEqualTo(1);
+        assertThat(underTest.deleteCustomerById(id)).isZero();
+    }
+
+    @Test
+    void updateCustomerIfChanged() {
+        Long id = idOf(email);
+
+        List<Object[]> updated = underTest.updateCustomerIfChanged(id, "New Name", null, null, null);
+        List<Object[]> unchanged = underTest.updateCustomerIfChanged(id, "New Name", null, null, null);
+
+        assertThat(updated).singleElement()
+                .extracting(CustomerDaoSupport::view)
+                .satisfies(c -> {
+                    assertThat(c.name()).isEqualTo("New Name");
+                    assertThat(c.email()).isEqualTo(email);
+                });
+        assertThat(unchanged).isEmpty();
+    }
+
+    private Long idOf(String email) {
+        return underTest.findAll()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+    }
 }
@@ -0,0 +1,42 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.payload.CustomerSearchCriteria;
+import com.connor.customer.payload.CustomerSearchSort;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchSqlTest {
+
+    @Test
+    void emitsOnlyRequestedFilters() {
+        CustomerSearchSql actual = CustomerSearchSql.of(
+                new CustomerSearchCriteria(null, null, 18, null, CustomerSearchSort.AGE, 20));
+
+        assertThat(actual.sql())
+                .contains("WHERE age >= ?")
+                .doesNotContain("name ILIKE", "lower(email)", "age <= ?")
+                .contains("ORDER BY age, id");
+        assertThat(actual.parameters()).containsExactly(18, 20);
+    }
+
+    @Test
+    void omitsWhereClauseWithoutFilters() {
+        CustomerSearchSql actual = CustomerSearchSql.of(
+                new CustomerSearchCriteria(null, null, null, null, CustomerSearchSort.ID, 5));
+
+        assertThat(actual.sql()).doesNotContain("WHERE").contains("ORDER BY id");
+        assertThat(actual.parameters()).containsExactly(5);
+    }
+
+    @Test
+    void bindsNameForMatchAndRelevance() {
+        CustomerSearchSql actual = CustomerSearchSql.of(
+                new CustomerSearchCriteria("Alex", "Al_x%", null, null, CustomerSearchSort.RELEVANCE, 10));
+
+        assertThat(actual.sql())
+                .contains("(name ILIKE ? OR ? <% name) AND lower(email) LIKE ?")
+                .contains("ORDER BY word_similarity(?, name) DESC, id");
+        assertThat(actual.parameters()).containsExactly("%Alex%", "Alex", "al\\_x\\%%", "Alex", 10);
+    }
+}
@@ -0,0 +1,76 @@
+package com.connor.customer.dao;
+
+import com.connor.customer.payload.CustomerView;
+import com.connor.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredCustomerDaoTest {
+
+    @Mock private CustomerDao delegate;
+    private SimpleMeterRegistry registry;
+    private MeteredCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        underTest = new MeteredCustomerDao(delegate, registry, "jdbc");
+    }
+
+    @Test
+    void recordsLatencyAndRowsForSelectAll() {
+        when(delegate.selectAllCustomers()).thenReturn(List.of(
+                new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L),
+                new CustomerView(2L, "Connor", "connor@gmail.com", 28, 0L)));
+
+        assertThat(underTest.selectAllCustomers()).hasSize(2);
+
+        assertThat(registry.get(MeteredCustomerDao.CALLS)
+                .tags("method", "selectAllCustomers", "implementation", "jdbc")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(MeteredCustomerDao.ROWS)
+                .tags("method", "selectAllCustomers", "implementation", "jdbc")
+                .summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void recordsJsonPageWrites() {
+        OutputStream outputStream = new ByteArrayOutputStream();
+        when(delegate.writeCustomerPage(0L, 50, outputStream)).thenReturn("fingerprint");
+
+        assertThat(underTest.writeCustomerPage(0L, 50, outputStream)).isEqualTo("fingerprint");
+
+        assertThat(registry.get(MeteredCustomerDao.CALLS)
+                .tags("method", "writeCustomerPage", "implementation", "jdbc")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsErrorsByExceptionType() {
+        doThrow(new ResourceNotFoundException("Customer could not be found")).when(delegate).deleteCustomer(1L);
+
+        assertThatThrownBy(() -> underTest.deleteCustomer(1L))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(registry.get(MeteredCustomerDao.ERRORS)
+                .tags("method", "deleteCustomer", "implementation", "jdbc", "exception", "ResourceNotFoundException")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get(MeteredCustomerDao.CALLS)
+                .tags("method", "deleteCustomer")
+                .timer().count()).isEqualTo(1);
+    }
+}
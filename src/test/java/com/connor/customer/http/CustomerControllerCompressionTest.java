@@ -0,0 +1,72 @@
+package com.connor.customer.http;
+
+import com.connor.customer.business.CustomerBulkRegistrationService;
+import com.connor.customer.business.CustomerExportService;
+import com.connor.customer.business.CustomerImportService;
+import com.connor.customer.business.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+// Tomcat's own gzip with the server.compression settings from application.yml; only the controller is real
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = CustomerController.class)
+@ImportAutoConfiguration({
+        ServletWebServerFactoryAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class,
+        WebMvcAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class,
+        JacksonAutoConfiguration.class})
+class CustomerControllerCompressionTest {
+
+    @LocalServerPort private int port;
+    @MockBean private CustomerService customerService;
+    @MockBean private CustomerExportService customerExportService;
+    @MockBean private CustomerBulkRegistrationService customerBulkRegistrationService;
+    @MockBean private CustomerImportService customerImportService;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void gzipsJsonListPages() throws Exception {
+        String page = "{\"customers\":[" + "{\"id\":1,\"name\":\"Alex\",\"email\":\"alex@gmail.com\",\"age\":27},".repeat(100)
+                + "{\"id\":2,\"name\":\"Connor\",\"email\":\"connor@gmail.com\",\"age\":28}],\"nextCursor\":null}";
+        when(customerService.writeCustomerPage(isNull(), isNull(), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write(page.getBytes(StandardCharsets.UTF_8));
+            return "fingerprint";
+        });
+
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/customers"))
+                        .header(HttpHeaders.ACCEPT, "application/json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).hasValue("W/\"fingerprint\"");
+        try (GZIPInputStream decoded = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(decoded.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(page);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.connor.customer.http;
+
+import com.connor.customer.payload.CustomerPage;
+import com.connor.customer.payload.CustomerView;
+import com.google.protobuf.CodedInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerProtobufHttpMessageConverterTest {
+
+    @Test
+    void writesPageInProtoWireFormat() throws Exception {
+        CustomerPage page = new CustomerPage(List.of(
+                new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L),
+                new CustomerView(2L, "Connor", "connor@gmail.com", 28, 0L)), 2L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CustomerProtobufHttpMessageConverter.write(page, out);
+
+        CodedInputStream input = CodedInputStream.newInstance(out.toByteArray());
+        List<CustomerView> customers = new ArrayList<>();
+        Long nextCursor = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag >>> 3) {
+                case 1 -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    customers.add(readCustomer(input));
+                    input.popLimit(limit);
+                }
+                case 2 -> nextCursor = input.readInt64();
+                default -> input.skipField(tag);
+            }
+        }
+
+        assertThat(customers).containsExactlyElementsOf(page.customers());
+        assertThat(nextCursor).isEqualTo(2L);
+    }
+
+    @Test
+    void writesSearchResultsAsCustomerList() throws Exception {
+        List<CustomerView> results = List.of(
+                new CustomerView(1L, "Alex", "alex@gmail.com", 27, 0L),
+                new CustomerView(2L, "Connor", null, 28, 0L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CustomerProtobufHttpMessageConverter.write(results, out);
+
+        CodedInputStream input = CodedInputStream.newInstance(out.toByteArray());
+        List<CustomerView> customers = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            assertThat(tag >>> 3).isEqualTo(1);
+            int limit = input.pushLimit(input.readRawVarint32());
+            customers.add(readCustomer(input));
+            input.popLimit(limit);
+        }
+
+        assertThat(customers).containsExactlyElementsOf(results);
+    }
+
+    @Test
+    void writesOnlyListsOfCustomers() {
+        CustomerProtobufHttpMessageConverter underTest = new CustomerProtobufHttpMessageConverter();
+        MediaType protobuf = CustomerProtobufHttpMessageConverter.PROTOBUF;
+        Type customers = ResolvableType.forClassWithGenerics(List.class, CustomerView.class).getType();
+        Type strings = ResolvableType.forClassWithGenerics(List.class, String.class).getType();
+
+        assertThat(underTest.canWrite(customers, List.class, protobuf)).isTrue();
+        assertThat(underTest.canWrite(strings, List.class, protobuf)).isFalse();
+        assertThat(underTest.canWrite(List.class, protobuf)).isFalse();
+        assertThat(underTest.getSupportedMediaTypes(ArrayList.class)).containsExactly(protobuf);
+        assertThat(underTest.canWrite(CustomerPage.class, CustomerPage.class, protobuf)).isTrue();
+        assertThat(underTest.canWrite(CustomerPage.class, CustomerPage.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    // version is not on the wire, so it reads back as 0
+    private static CustomerView readCustomer(CodedInputStream input) throws Exception {
+        long id = 0;
+        String name = null;
+        String email = null;
+        int age = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag >>> 3) {
+                case 1 -> id = input.readInt64();
+                case 2 -> name = input.readString();
+                case 3 -> email = input.readString();
+                case 4 -> age = input.readInt32();
+                default -> input.skipField(tag);
+            }
+        }
+        return new CustomerView(id, name, email, age, 0L);
+    }
+}
@@ -1,8 +1,9 @@
 package com.connor.customer.journey;
 
-import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerPage;
 import com.connor.customer.payload.CustomerRegistrationRequest;
 import com.connor.customer.payload.CustomerUpdateRequest;
+import com.connor.customer.payload.CustomerView;
 import com.github.javafaker.Faker;
 import com.github.javafaker.Name;
 import org.junit.jupiter.api.Test;
@@ -13,7 +14,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
@@ -45,17 +48,8 @@ public class CustomerIntegrationTest {
                 .isOk();
 
         // get all customers
-        List<Customer> allCustomers = webTestClient.get()
-                .uri(CUSTOMER_URI)
-                .accept(MediaType.APPLICATION_JSON)
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<Customer>() {
-                })
-                .returnResult()
-                .getResponseBody();
-        Customer expected = new Customer(request.name(), request.email(), request.age());
+        List<CustomerView> allCustomers = getAllCustomers();
+        CustomerView expected = new CustomerView(0L, request.name(), request.email(), request.age(), 0L);
         assertThat(allCustomers)
                 .usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
                 .contains(expected);
@@ -64,18 +58,18 @@ public class CustomerIntegrationTest {
         assert allCustomers != null;
         Long id = allCustomers
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
-        expected.setId(id);
+        expected = new CustomerView(id, expected.name(), expected.email(), expected.age(), 0L);
         webTestClient.get()
                 .uri(CUSTOMER_URI + "/{id}", id)
                 .accept(MediaType.APPLICATION_JSON)
                 .exchange()
                 .expectStatus()
                 .isOk()
-                .expectBody(new ParameterizedTypeReference<Customer>() {
+                .expectBody(new ParameterizedTypeReference<CustomerView>() {
                 })
                 .isEqualTo(expected);
     }
@@ -99,23 +93,14 @@ public class CustomerIntegrationTest {
                 .isOk();
 
         // get all customers
-        List<Customer> allCustomers = webTestClient.get()
-                .uri(CUSTOMER_URI)
-                .accept(MediaType.APPLICATION_JSON)
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<Customer>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        List<CustomerView> allCustomers = getAllCustomers();
 
         // get id
         assert allCustomers != null;
         Long id = allCustomers
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
@@ -155,23 +140,14 @@ public class CustomerIntegrationTest {
                 .isOk();
 
         // get all customers
-        List<Customer> allCustomers = webTestClient.get()
-                .uri(CUSTOMER_URI)
-                .accept(MediaType.APPLICATION_JSON)
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<Customer>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        List<CustomerView> allCustomers = getAllCustomers();
 
 
         assert allCustomers != null;
         Long id = allCustomers
                 .stream()
-                .filter(c -> c.getEmail().equals(email))
-                .map(Customer::getId)
+                .filter(c -> c.email().equals(email))
+                .map(CustomerView::id)
                 .findFirst()
                 .orElseThrow();
 
@@ -188,15 +164,111 @@ public class CustomerIntegrationTest {
 
 
         // get customer by id
-        Customer expected = new Customer(id,"New Name", "new-email@email.com", 27);
+        CustomerView expected = new CustomerView(id, "New Name", "new-email@email.com", 27, 0L);
         webTestClient.get()
                 .uri(CUSTOMER_URI + "/{id}", id)
                 .accept(MediaType.APPLICATION_JSON)
                 .exchange()
                 .expectStatus()
                 .isOk()
-                .expectBody(new ParameterizedTypeReference<Customer>() {
+                .expectBody(new ParameterizedTypeReference<CustomerView>() {
                 })
                 .isEqualTo(expected);
     }
+
+    @Test
+    void canExportCustomers() {
+        // build request
+        Name name = FAKER.name();
+        String email = name.firstName().toLowerCase() + "." + name.lastName().toLowerCase() + "@integration.com";
+        int age = FAKER.number().numberBetween(18, 99);
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(name.fullName(), email, age);
+
+        // register customer
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // export customers as csv
+        String csv = webTestClient.get()
+                .uri(CUSTOMER_URI + "/export?format=csv")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(csv).startsWith("id,name,email,age\n").contains("," + email + "," + age + "\n");
+    }
+
+    @Test
+    void jsonPageETagMatchesConditionalRequest() {
+        for (int i = 0; i < 3; i++) {
+            Name name = FAKER.name();
+            webTestClient.post()
+                    .uri(CUSTOMER_URI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Mono.just(new CustomerRegistrationRequest(name.fullName(),
+                            name.firstName().toLowerCase() + "." + i + "." + System.nanoTime() + "@integration.com", 30)),
+                            CustomerRegistrationRequest.class)
+                    .exchange()
+                    .expectStatus()
+                    .isOk();
+        }
+
+        var result = webTestClient.get()
+                .uri(CUSTOMER_URI + "?limit=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBody(CustomerPage.class)
+                .returnResult();
+        CustomerPage page = result.getResponseBody();
+        assert page != null;
+        assertThat(page.customers()).hasSize(2);
+        assertThat(page.nextCursor()).isEqualTo(page.customers().get(1).id());
+
+        webTestClient.get()
+                .uri(CUSTOMER_URI + "?limit=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(result.getResponseHeaders().getETag())
+                .exchange()
+                .expectStatus()
+                .isNotModified();
+    }
+
+    private List<CustomerView> getAllCustomers() {
+        List<CustomerView> customers = new ArrayList<>();
+        Long cursor = null;
+        do {
+            Long after = cursor;
+            CustomerPage page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path(CUSTOMER_URI)
+                            .queryParamIfPresent("after", Optional.ofNullable(after))
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(CustomerPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            assert page != null;
+            customers.addAll(page.customers());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return customers;
+    }
 }
@@ -0,0 +1,115 @@
+package com.connor.customer.journey;
+
+import com.connor.Main;
+import com.connor.customer.payload.CustomerRegistrationRequest;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two unrelated containers stand in for a primary and its replica. Rows written straight into the
+// "replica" only are visible through the API when reads are routed there. Customers by id are always
+// loaded from the primary, because that is what gets cached.
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final PostgreSQLContainer<?> primary = container();
+    private static final PostgreSQLContainer<?> replica = container();
+    private static ConfigurableApplicationContext context;
+    private static WebTestClient webTestClient;
+
+    @BeforeAll
+    static void beforeAll() {
+        primary.start();
+        replica.start();
+        Flyway.configure().dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()).load().migrate();
+        context = new SpringApplicationBuilder(Main.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + primary.getJdbcUrl(),
+                        "spring.datasource.username=" + primary.getUsername(),
+                        "spring.datasource.password=" + primary.getPassword(),
+                        "spring.cache.type=none",
+                        "customer.replicas.enabled=true",
+                        "customer.replicas.urls[0]=" + replica.getJdbcUrl(),
+                        "customer.replicas.health-check-interval=100ms",
+                        "customer.replicas.read-your-writes-window=1h")
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        webTestClient = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        if (context != null) {
+            context.close();
+        }
+        primary.stop();
+        replica.stop();
+    }
+
+    @Test
+    void readsGoToReplicaUnlessClientJustWrote() throws Exception {
+        insertIntoReplicaOnly();
+
+        assertThat(customerList(null)).contains("replica@example.com");
+
+        String cookie = webTestClient.post().uri("/api/v1/customers")
+                .bodyValue(new CustomerRegistrationRequest("Primary", "primary@example.com", 40))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Void.class)
+                .getResponseCookies()
+                .getFirst("customer-primary-until")
+                .getValue();
+
+        assertThat(customerList(cookie))
+                .contains("primary@example.com")
+                .doesNotContain("replica@example.com");
+    }
+
+    @Test
+    void customerByIdIsLoadedFromPrimary() throws Exception {
+        insertIntoReplicaOnly();
+
+        webTestClient.get().uri("/api/v1/customers/424242")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static void insertIntoReplicaOnly() throws InterruptedException {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+        replicaJdbc.update("""
+                INSERT INTO customer (id, name, email, age) VALUES (424242, 'Replica', 'replica@example.com', 30)
+                ON CONFLICT DO NOTHING
+                """);
+        Thread.sleep(500);
+    }
+
+    private static String customerList(String cookie) {
+        WebTestClient.RequestHeadersSpec<?> request = webTestClient.get().uri("/api/v1/customers?limit=1000");
+        if (cookie != null) {
+            request = request.cookie("customer-primary-until", cookie);
+        }
+        return request.exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static PostgreSQLContainer<?> container() {
+        return new PostgreSQLContainer<>("postgres:latest")
+                .withUsername("amigoscode")
+                .withPassword("password");
+    }
+}
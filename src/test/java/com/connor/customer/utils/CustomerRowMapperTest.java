@@ -1,6 +1,6 @@
 package com.connor.customer.utils;
 
-import com.connor.customer.model.Customer;
+import com.connor.customer.payload.CustomerView;
 import org.junit.jupiter.api.Test;
 
 import java.sql.ResultSet;
@@ -20,14 +20,10 @@ class CustomerRowMapperTest {
         when(resultSet.getString("email")).thenReturn("test@email.com");
         when(resultSet.getString("name")).thenReturn("test");
         when(resultSet.getInt("age")).thenReturn(27);
+        when(resultSet.getLong("version")).thenReturn(2L);
 
-        Customer actual = customerRowMapper.mapRow(resultSet, 1);
-        Customer expected = new Customer(1L, "test", "test@email.com", 27);
+        CustomerView actual = customerRowMapper.mapRow(resultSet, 1);
 
-        assert actual != null;
-        assertThat(actual.getId()).isEqualTo(expected.getId());
-        assertThat(actual.getEmail()).isEqualTo(expected.getEmail());
-        assertThat(actual.getName()).isEqualTo(expected.getName());
-        assertThat(actual.getAge()).isEqualTo(expected.getAge());
+        assertThat(actual).isEqualTo(new CustomerView(1L, "test", "test@email.com", 27, 2L));
     }
 }
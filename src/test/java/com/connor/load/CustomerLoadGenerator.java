@@ -0,0 +1,177 @@
+package com.connor.load;
+
+import com.connor.load.LoadScenario.LoadOperation;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives api/v1/customers at a fixed arrival rate with at most `clients` requests in flight.
+// Latency is measured from the scheduled start, so a backed-up server cannot hide queueing delay.
+class CustomerLoadGenerator {
+
+    private static final int HOT_IDS = 10;
+    private static final int PAGE_SIZE = 50;
+
+    private final String baseUrl;
+    private final long[] ids;
+    private final int ratePerSecond;
+    private final int clients;
+    private final HttpClient client;
+    private final AtomicLong sequence = new AtomicLong();
+
+    CustomerLoadGenerator(int port, long[] ids, int ratePerSecond, int clients) {
+        this.baseUrl = "http://localhost:" + port + "/api/v1/customers";
+        this.ids = ids;
+        this.ratePerSecond = ratePerSecond;
+        this.clients = clients;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    LoadReport run(LoadScenario scenario, Duration duration) throws InterruptedException {
+        Map<LoadOperation, ConcurrentLinkedQueue<Long>> latencies = new EnumMap<>(LoadOperation.class);
+        Map<LoadOperation, AtomicInteger> errors = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            latencies.put(operation, new ConcurrentLinkedQueue<>());
+            errors.put(operation, new AtomicInteger());
+        }
+        Semaphore inFlight = new Semaphore(clients);
+        long intervalNanos = 1_000_000_000L / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+                LockSupport.parkNanos(scheduled - System.nanoTime());
+                inFlight.acquire();
+                long intendedStart = scheduled;
+                LoadOperation operation = scenario.next();
+                executor.execute(() -> {
+                    try {
+                        int status = client.send(request(operation), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status >= 400) {
+                            errors.get(operation).incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.get(operation).incrementAndGet();
+                    } finally {
+                        latencies.get(operation).add(System.nanoTime() - intendedStart);
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return LoadReport.of(scenario, System.nanoTime() - start, latencies, errors);
+    }
+
+    private HttpRequest request(LoadOperation operation) {
+        return switch (operation) {
+            case GET_BY_ID -> get(baseUrl + "/" + randomId());
+            case GET_HOT -> get(baseUrl + "/" + hotId());
+            case LIST_PAGE -> get(baseUrl + "?after=" + randomId() + "&limit=" + PAGE_SIZE);
+            case CREATE -> {
+                long n = sequence.incrementAndGet();
+                yield json(HttpRequest.newBuilder(URI.create(baseUrl)), "POST",
+                        "{\"name\":\"Load %d\",\"email\":\"load.%d.%d@example.com\",\"age\":30}"
+                                .formatted(n, System.nanoTime(), n));
+            }
+            case UPDATE -> update(randomId());
+            case UPDATE_HOT -> update(hotId());
+        };
+    }
+
+    // Names always change so the update never hits the "no changes" path.
+    private HttpRequest update(long id) {
+        return json(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)), "PUT",
+                "{\"name\":\"Updated %d\"}".formatted(sequence.incrementAndGet()));
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private long hotId() {
+        return ids[ThreadLocalRandom.current().nextInt(Math.min(HOT_IDS, ids.length))];
+    }
+
+    record LoadReport(LoadScenario scenario, double requestsPerSecond, Map<LoadOperation, OperationStats> operations) {
+
+        static LoadReport of(LoadScenario scenario,
+                             long elapsedNanos,
+                             Map<LoadOperation, ConcurrentLinkedQueue<Long>> latencies,
+                             Map<LoadOperation, AtomicInteger> errors) {
+            Map<LoadOperation, OperationStats> operations = new EnumMap<>(LoadOperation.class);
+            long total = 0;
+            for (var entry : latencies.entrySet()) {
+                long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                if (sorted.length > 0) {
+                    operations.put(entry.getKey(), OperationStats.of(sorted, errors.get(entry.getKey()).get()));
+                    total += sorted.length;
+                }
+            }
+            return new LoadReport(scenario, total * 1_000_000_000.0 / elapsedNanos, operations);
+        }
+
+        int errors() {
+            return operations.values().stream().mapToInt(OperationStats::errors).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder("%s  %.0f req/s  errors %d%n"
+                    .formatted(scenario, requestsPerSecond, errors()));
+            operations.forEach((operation, stats) -> report.append("  %-10s %s%n".formatted(operation, stats)));
+            return report.toString();
+        }
+    }
+
+    record OperationStats(int count, int errors, double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        static OperationStats of(long[] sorted, int errors) {
+            return new OperationStats(
+                    sorted.length,
+                    errors,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.95),
+                    percentile(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1_000_000.0);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "n %7d  errors %5d (%.2f%%)  p50 %7.1f ms  p95 %7.1f ms  p99 %7.1f ms  max %7.1f ms"
+                    .formatted(count, errors, errors * 100.0 / count, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+}
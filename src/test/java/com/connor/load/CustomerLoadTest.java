@@ -0,0 +1,102 @@
+package com.connor.load;
+
+import com.connor.Main;
+import com.connor.customer.dao.CustomerDao;
+import com.connor.load.CustomerLoadGenerator.LoadReport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Seeds the table, then runs each scenario against the REST API and prints latency percentiles and error rates.
+// Run with: mvn test -Dtest=CustomerLoadTest -Dload=true
+// Tunables (defaults): load.seed=100000, load.rate=500, load.clients=200, load.duration=30 (seconds),
+// load.scenarios=READ_HEAVY,WRITE_HEAVY,HOT_UPDATE_STORM, load.admission=false.
+// Set load.datasource.url (plus load.datasource.username/password) to use a local Postgres instead of a container;
+// the customer table there is truncated first.
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class CustomerLoadTest {
+
+    private static PostgreSQLContainer<?> postgreSQLContainer;
+    private static ConfigurableApplicationContext context;
+    private static long[] ids;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        String url = System.getProperty("load.datasource.url");
+        String username = System.getProperty("load.datasource.username", "amigoscode");
+        String password = System.getProperty("load.datasource.password", "password");
+        if (url == null) {
+            postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("customer-load-test")
+                    .withUsername(username)
+                    .withPassword(password);
+            postgreSQLContainer.start();
+            url = postgreSQLContainer.getJdbcUrl();
+        }
+        context = new SpringApplicationBuilder(Main.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=" + username,
+                        "spring.datasource.password=" + password,
+                        // the generator is a single client, so its rate limit would cap the offered load
+                        "customer.admission.enabled=" + Boolean.getBoolean("load.admission"),
+                        "logging.level.root=warn")
+                .run();
+
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE customer");
+        int seed = Integer.getInteger("load.seed", 100_000);
+        CustomerSeeder seeder = new CustomerSeeder(
+                context.getBean("jdbc", CustomerDao.class),
+                Runtime.getRuntime().availableProcessors(),
+                1000);
+        long start = System.nanoTime();
+        ids = seeder.seed(seed);
+        System.out.printf("seeded %d customers in %.1f s%n", seed, (System.nanoTime() - start) / 1e9);
+        context.getBean(JdbcTemplate.class).execute("ANALYZE customer");
+    }
+
+    @AfterAll
+    static void afterAll() {
+        if (context != null) {
+            context.close();
+        }
+        if (postgreSQLContainer != null) {
+            postgreSQLContainer.stop();
+        }
+    }
+
+    @Test
+    void runScenarios() throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        CustomerLoadGenerator generator = new CustomerLoadGenerator(
+                port,
+                ids,
+                Integer.getInteger("load.rate", 500),
+                Integer.getInteger("load.clients", 200));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        List<LoadScenario> scenarios = Arrays.stream(
+                        System.getProperty("load.scenarios", "READ_HEAVY,WRITE_HEAVY,HOT_UPDATE_STORM").split(","))
+                .map(String::trim)
+                .map(LoadScenario::valueOf)
+                .toList();
+
+        for (LoadScenario scenario : scenarios) {
+            LoadReport report = generator.run(scenario, duration);
+            System.out.println(report);
+            assertThat(report.requestsPerSecond()).isPositive();
+        }
+    }
+}
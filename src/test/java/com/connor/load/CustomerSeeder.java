@@ -0,0 +1,75 @@
+package com.connor.load;
+
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.model.Customer;
+import com.github.javafaker.Faker;
+import com.github.javafaker.Name;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Inserts realistic Faker customers through CustomerDao.insertCustomers from several threads.
+// Emails carry the row index, so they stay unique however many rows are generated.
+class CustomerSeeder {
+
+    private final CustomerDao customerDao;
+    private final int threads;
+    private final int batchSize;
+
+    CustomerSeeder(CustomerDao customerDao, int threads, int batchSize) {
+        this.customerDao = customerDao;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    // Returns the generated ids in insertion order.
+    long[] seed(int count) throws Exception {
+        long[] ids = new long[count];
+        int chunk = (count + threads - 1) / threads;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < count; from += chunk) {
+                int start = from;
+                int end = Math.min(count, from + chunk);
+                futures.add(executor.submit(() -> {
+                    seedRange(start, end, ids);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return ids;
+    }
+
+    private void seedRange(int from, int to, long[] ids) {
+        // Faker is not thread-safe, so every worker gets its own
+        Faker faker = new Faker();
+        for (int batchStart = from; batchStart < to; batchStart += batchSize) {
+            int batchEnd = Math.min(to, batchStart + batchSize);
+            List<Customer> customers = new ArrayList<>(batchEnd - batchStart);
+            for (int i = batchStart; i < batchEnd; i++) {
+                Name name = faker.name();
+                String firstName = name.firstName();
+                String lastName = name.lastName();
+                customers.add(new Customer(
+                        firstName + " " + lastName,
+                        firstName.toLowerCase() + "." + lastName.toLowerCase() + "." + i + "@example.com",
+                        faker.number().numberBetween(18, 80)
+                ));
+            }
+            Set<String> taken = customerDao.insertCustomers(customers, batchSize);
+            if (!taken.isEmpty()) {
+                throw new IllegalStateException(taken.size() + " seeded emails already exist, seed an empty table");
+            }
+            for (int i = 0; i < customers.size(); i++) {
+                ids[batchStart + i] = customers.get(i).getId();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.connor.load;
+
+import com.connor.customer.dao.CustomerDao;
+import com.connor.customer.model.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CustomerSeederTest {
+
+    @Test
+    void seedsUniqueEmailsAndReturnsIdsInOrder() throws Exception {
+        CustomerDao customerDao = mock(CustomerDao.class);
+        AtomicLong nextId = new AtomicLong();
+        Set<String> emails = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            for (Customer customer : customers) {
+                customer.setId(nextId.incrementAndGet());
+                emails.add(customer.getEmail());
+            }
+            return Set.of();
+        }).when(customerDao).insertCustomers(anyList(), anyInt());
+
+        long[] ids = new CustomerSeeder(customerDao, 4, 7).seed(101);
+
+        assertThat(emails).hasSize(101);
+        assertThat(ids).hasSize(101).doesNotContain(0L).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,51 @@
+package com.connor.load;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Operation mixes for the load harness. Weights are relative, not percentages.
+enum LoadScenario {
+    READ_HEAVY(Map.of(
+            LoadOperation.GET_BY_ID, 70,
+            LoadOperation.LIST_PAGE, 25,
+            LoadOperation.CREATE, 5)),
+    WRITE_HEAVY(Map.of(
+            LoadOperation.CREATE, 60,
+            LoadOperation.UPDATE, 30,
+            LoadOperation.GET_BY_ID, 10)),
+    HOT_UPDATE_STORM(Map.of(
+            LoadOperation.UPDATE_HOT, 90,
+            LoadOperation.GET_HOT, 10));
+
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadScenario(Map<LoadOperation, Integer> weights) {
+        operations = weights.keySet().toArray(LoadOperation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    LoadOperation next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    enum LoadOperation {
+        GET_BY_ID,
+        LIST_PAGE,
+        CREATE,
+        UPDATE,
+        UPDATE_HOT,
+        GET_HOT
+    }
+}
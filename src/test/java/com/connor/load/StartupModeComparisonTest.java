@@ -0,0 +1,205 @@
+package com.connor.load;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Starts the packaged app in a fresh process per run and prints, for each startup mode, the time until the
+// first successful GET /api/v1/customers and the resident set size right after it (medians over the runs).
+// Build the artifacts first; modes without one are skipped:
+//   mvn -Pcds -DskipTests package             jvm (the -exec fat jar), aot and aot-cds
+//   mvn -Pnative -DskipTests native:compile   native
+// Run with: mvn test -Dtest=StartupModeComparisonTest -Dload=true [-Dstartup.runs=5]
+// Set load.datasource.url (plus load.datasource.username/password) to use a local Postgres instead of a container.
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class StartupModeComparisonTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final String JAR = "spring-boot-example-0.0.1-SNAPSHOT";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static PostgreSQLContainer<?> postgreSQLContainer;
+    private static String url;
+    private static String username;
+    private static String password;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @BeforeAll
+    static void beforeAll() {
+        url = System.getProperty("load.datasource.url");
+        username = System.getProperty("load.datasource.username", "amigoscode");
+        password = System.getProperty("load.datasource.password", "password");
+        if (url == null) {
+            postgreSQLContainer = new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("customer-startup-test")
+                    .withUsername(username)
+                    .withPassword(password);
+            postgreSQLContainer.start();
+            url = postgreSQLContainer.getJdbcUrl();
+        }
+        // migrate up front so no mode pays for it
+        Flyway.configure().dataSource(url, username, password).load().migrate();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        if (postgreSQLContainer != null) {
+            postgreSQLContainer.stop();
+        }
+    }
+
+    @Test
+    void compareStartupModes() throws Exception {
+        int runs = Integer.getInteger("startup.runs", 3);
+        List<Result> results = new ArrayList<>();
+        for (StartupMode mode : StartupMode.values()) {
+            List<String> command = mode.command();
+            if (command == null) {
+                System.out.printf("%-8s skipped, %s not built%n", mode.label, mode.artifact());
+                continue;
+            }
+            long[] millis = new long[runs];
+            long[] rssKilobytes = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                Sample sample = start(mode, command);
+                millis[run] = sample.millis();
+                rssKilobytes[run] = sample.rssKilobytes();
+            }
+            results.add(new Result(mode.label, median(millis), median(rssKilobytes) / 1024));
+        }
+
+        results.forEach(System.out::println);
+        assertThat(results).isNotEmpty();
+    }
+
+    private Sample start(StartupMode mode, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--logging.level.root=warn"));
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/customers?limit=1");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(TARGET.resolve("startup-" + mode.label + ".log").toFile())
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (!ready(uri)) {
+                if (!process.isAlive() || System.nanoTime() > deadline) {
+                    throw new IllegalStateException(mode.label + " did not start, see target/startup-" + mode.label + ".log");
+                }
+                Thread.sleep(10);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            return new Sample(millis, rssKilobytes(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private boolean ready(URI uri) throws InterruptedException {
+        try {
+            HttpResponse<Void> response = client.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long rssKilobytes(long pid) throws IOException, InterruptedException {
+        Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", Long.toString(pid)).start();
+        String output = new String(ps.getInputStream().readAllBytes()).trim();
+        ps.waitFor();
+        return Long.parseLong(output);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private enum StartupMode {
+        JVM("jvm", JAR + "-exec.jar"),
+        // the thin jar only runs with its dependencies next to it
+        AOT("aot", "lib"),
+        AOT_CDS("aot-cds", "application.jsa"),
+        NATIVE("native", "customer-service");
+
+        private final String label;
+        private final String artifact;
+
+        StartupMode(String label, String artifact) {
+            this.label = label;
+            this.artifact = artifact;
+        }
+
+        Path artifact() {
+            return TARGET.resolve(artifact);
+        }
+
+        // the same JVM that runs this test, since a CDS archive only loads into the JVM that wrote it
+        List<String> command() {
+            if (!Files.exists(artifact())) {
+                return null;
+            }
+            String java = ProcessHandle.current().info().command().orElse("java");
+            String thinJar = TARGET.resolve(JAR + ".jar").toString();
+            return switch (this) {
+                case JVM -> List.of(java, "-jar", artifact().toString());
+                case AOT -> List.of(java, "-Dspring.aot.enabled=true", "-jar", thinJar);
+                case AOT_CDS -> List.of(java, "-XX:SharedArchiveFile=" + artifact(), "-Dspring.aot.enabled=true", "-jar", thinJar);
+                case NATIVE -> List.of(artifact().toAbsolutePath().toString());
+            };
+        }
+    }
+
+    private record Sample(long millis, long rssKilobytes) {
+    }
+
+    private record Result(String mode, long firstRequestMillis, long rssMegabytes) {
+        @Override
+        public String toString() {
+            return "%-8s first request %6d ms  rss %5d MB".formatted(mode, firstRequestMillis, rssMegabytes);
+        }
+    }
+}